@@ -1,12 +1,16 @@
 package pageActions;
 
 import pageObjects.ContractPageObjects;
+import utils.ElementSnapshot;
 import utils.PlaywrightUtils;
 import utils.RandomizerUtils;
 import utils.CalendarUtils;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ContractPageActions extends PlaywrightUtils {
     
@@ -24,10 +28,12 @@ public class ContractPageActions extends PlaywrightUtils {
     public void fillCustomerInformation(String firstName, String lastName, String email, String phone) {
         waitForElementVisible("css", ContractPageObjects.CUSTOMER_FIRST_NAME);
         
-        typeText("css", ContractPageObjects.CUSTOMER_FIRST_NAME, firstName);
-        typeText("css", ContractPageObjects.CUSTOMER_LAST_NAME, lastName);
-        typeText("css", ContractPageObjects.CUSTOMER_EMAIL, email);
-        typeText("css", ContractPageObjects.CUSTOMER_PHONE, phone);
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put(ContractPageObjects.CUSTOMER_FIRST_NAME, firstName);
+        fields.put(ContractPageObjects.CUSTOMER_LAST_NAME, lastName);
+        fields.put(ContractPageObjects.CUSTOMER_EMAIL, email);
+        fields.put(ContractPageObjects.CUSTOMER_PHONE, phone);
+        fillForm(fields);
     }
     
     /**
@@ -55,12 +61,16 @@ public class ContractPageActions extends PlaywrightUtils {
      * Fill vehicle information
      */
     public void fillVehicleInformation(String vin, String year, String make, String model, String mileage, String price) {
-        typeText("css", ContractPageObjects.VIN_NUMBER, vin);
-        typeText("css", ContractPageObjects.VEHICLE_YEAR, year);
-        typeText("css", ContractPageObjects.VEHICLE_MAKE, make);
-        typeText("css", ContractPageObjects.VEHICLE_MODEL, model);
-        typeText("css", ContractPageObjects.VEHICLE_MILEAGE, mileage);
-        typeText("css", ContractPageObjects.VEHICLE_PRICE, price);
+        waitForElementVisible("css", ContractPageObjects.VIN_NUMBER);
+        
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put(ContractPageObjects.VIN_NUMBER, vin);
+        fields.put(ContractPageObjects.VEHICLE_YEAR, year);
+        fields.put(ContractPageObjects.VEHICLE_MAKE, make);
+        fields.put(ContractPageObjects.VEHICLE_MODEL, model);
+        fields.put(ContractPageObjects.VEHICLE_MILEAGE, mileage);
+        fields.put(ContractPageObjects.VEHICLE_PRICE, price);
+        fillForm(fields);
     }
     
     /**
@@ -125,8 +135,7 @@ public class ContractPageActions extends PlaywrightUtils {
      * Calculate quote
      */
     public String calculateQuote() {
-        clickElement("xpath", ContractPageObjects.CALCULATE_QUOTE_BUTTON);
-        waitForPageLoad();
+        clickAndWaitForResponses("calculateQuote", "xpath", ContractPageObjects.CALCULATE_QUOTE_BUTTON);
         waitForElementVisible("xpath", ContractPageObjects.QUOTE_TOTAL);
         return getText("xpath", ContractPageObjects.QUOTE_TOTAL);
     }
@@ -135,8 +144,7 @@ public class ContractPageActions extends PlaywrightUtils {
      * Generate contract
      */
     public void generateContract() {
-        clickElement("xpath", ContractPageObjects.GENERATE_CONTRACT_BUTTON);
-        waitForPageLoad();
+        clickAndWaitForResponses("generateContract", "xpath", ContractPageObjects.GENERATE_CONTRACT_BUTTON);
     }
     
     /**
@@ -153,7 +161,7 @@ public class ContractPageActions extends PlaywrightUtils {
     public void printQuote() {
         clickElement("xpath", ContractPageObjects.PRINT_QUOTE_BUTTON);
         // Handle print dialog if needed
-        wait(2000);
+        waitForAppReady("printQuote", 2000);
     }
     
     /**
@@ -171,8 +179,7 @@ public class ContractPageActions extends PlaywrightUtils {
         waitForElementVisible("css", ContractPageObjects.SEARCH_VIN);
         clearField("css", ContractPageObjects.SEARCH_VIN);
         typeText("css", ContractPageObjects.SEARCH_VIN, vin);
-        clickElement("xpath", ContractPageObjects.SEARCH_BUTTON);
-        waitForPageLoad();
+        clickAndWaitForResponses("searchContracts", "xpath", ContractPageObjects.SEARCH_BUTTON);
     }
     
     /**
@@ -182,8 +189,7 @@ public class ContractPageActions extends PlaywrightUtils {
         waitForElementVisible("css", ContractPageObjects.SEARCH_CUSTOMER_NAME);
         clearField("css", ContractPageObjects.SEARCH_CUSTOMER_NAME);
         typeText("css", ContractPageObjects.SEARCH_CUSTOMER_NAME, customerName);
-        clickElement("xpath", ContractPageObjects.SEARCH_BUTTON);
-        waitForPageLoad();
+        clickAndWaitForResponses("searchContracts", "xpath", ContractPageObjects.SEARCH_BUTTON);
     }
     
     /**
@@ -193,8 +199,7 @@ public class ContractPageActions extends PlaywrightUtils {
         waitForElementVisible("css", ContractPageObjects.SEARCH_CONTRACT_NUMBER);
         clearField("css", ContractPageObjects.SEARCH_CONTRACT_NUMBER);
         typeText("css", ContractPageObjects.SEARCH_CONTRACT_NUMBER, contractNumber);
-        clickElement("xpath", ContractPageObjects.SEARCH_BUTTON);
-        waitForPageLoad();
+        clickAndWaitForResponses("searchContracts", "xpath", ContractPageObjects.SEARCH_BUTTON);
     }
     
     /**
@@ -203,18 +208,14 @@ public class ContractPageActions extends PlaywrightUtils {
     public void searchContractsByDateRange(String fromDate, String toDate) {
         typeText("css", ContractPageObjects.SEARCH_DATE_FROM, fromDate);
         typeText("css", ContractPageObjects.SEARCH_DATE_TO, toDate);
-        clickElement("xpath", ContractPageObjects.SEARCH_BUTTON);
-        waitForPageLoad();
+        clickAndWaitForResponses("searchContracts", "xpath", ContractPageObjects.SEARCH_BUTTON);
     }
     
     /**
      * Get search results count
      */
     public int getSearchResultsCount() {
-        if (isElementVisible("xpath", ContractPageObjects.SEARCH_RESULTS_ROWS)) {
-            return getElementCount("xpath", ContractPageObjects.SEARCH_RESULTS_ROWS);
-        }
-        return 0;
+        return getVisibleElementCount("xpath", ContractPageObjects.SEARCH_RESULTS_ROWS);
     }
     
     /**
@@ -262,14 +263,20 @@ public class ContractPageActions extends PlaywrightUtils {
      */
     public void clearSearchForm() {
         clickElement("xpath", ContractPageObjects.CLEAR_SEARCH_BUTTON);
-        wait(1000);
+        waitForAppReady("clearSearchForm", 1000);
     }
     
     /**
      * Get validation messages
      */
     public List<String> getValidationMessages() {
-        return getAllTextValues("xpath", ContractPageObjects.VALIDATION_MESSAGES);
+        List<String> messages = new ArrayList<>();
+        for (ElementSnapshot message : queryAll("xpath", ContractPageObjects.VALIDATION_MESSAGES)) {
+            if (message.isVisible()) {
+                messages.add(message.getText());
+            }
+        }
+        return messages;
     }
     
     /**
@@ -287,7 +294,7 @@ public class ContractPageActions extends PlaywrightUtils {
         if (isElementVisible("css", ContractPageObjects.FILE_UPLOAD_INPUT)) {
             uploadFile("css", ContractPageObjects.FILE_UPLOAD_INPUT, filePath);
             clickElement("xpath", ContractPageObjects.UPLOAD_BUTTON);
-            wait(2000);
+            waitForAppReady("uploadDocument", 2000);
         }
     }
     
@@ -316,22 +323,22 @@ public class ContractPageActions extends PlaywrightUtils {
      */
     public void clickCustomerInfoTab() {
         clickElement("xpath", ContractPageObjects.CUSTOMER_INFO_TAB);
-        wait(1000);
+        waitForAppReady("clickCustomerInfoTab", 1000);
     }
     
     public void clickVehicleInfoTab() {
         clickElement("xpath", ContractPageObjects.VEHICLE_INFO_TAB);
-        wait(1000);
+        waitForAppReady("clickVehicleInfoTab", 1000);
     }
     
     public void clickProgramInfoTab() {
         clickElement("xpath", ContractPageObjects.PROGRAM_INFO_TAB);
-        wait(1000);
+        waitForAppReady("clickProgramInfoTab", 1000);
     }
     
     public void clickReviewTab() {
         clickElement("xpath", ContractPageObjects.REVIEW_TAB);
-        wait(1000);
+        waitForAppReady("clickReviewTab", 1000);
     }
     
     /**
@@ -1,5 +1,7 @@
 package pageActions;
 
+import com.microsoft.playwright.options.WaitForSelectorState;
+
 import pageObjects.DashboardPageObjects;
 import utils.PlaywrightUtils;
 
@@ -92,7 +94,7 @@ public class DashboardPageActions extends PlaywrightUtils {
      */
     public void clickLogoutFromProfile() {
         clickUserProfile();
-        wait(1000);
+        waitForElementState("clickLogoutFromProfile", 1000, DashboardPageObjects.LOGOUT_OPTION, WaitForSelectorState.VISIBLE);
         clickElement("xpath", DashboardPageObjects.LOGOUT_OPTION);
     }
     
@@ -0,0 +1,288 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import pageObjects.ContractPageObjects;
+import pageObjects.DashboardPageObjects;
+import pageObjects.LoginPageObjects;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Latency histograms of PlaywrightUtils actions, keyed by action and page-object selector.
+ *
+ * Each histogram is a fixed array of log-linear microsecond buckets (8 per power of two, so
+ * percentiles are within 12.5%) updated with atomic increments, so recording is lock-free. They
+ * are looked up by action, then selector, so recording an action and selector seen before builds
+ * no key; the lambdas passed to time() are still allocated by the callers. Selectors are reported
+ * by their page-object constant name (e.g. LoginPageObjects.USERNAME_FIELD) when they have one.
+ *
+ * printReport() prints p50/p95/p99 per action and writeJson() saves the same table; both are
+ * called from TestListener.onFinish. Disable with metrics.enabled=false.
+ */
+public class ActionMetrics {
+
+    private static final String REPORT_FILE = "test-results/metrics/action-latency.json";
+    private static final Class<?>[] PAGE_OBJECTS = {
+        LoginPageObjects.class, DashboardPageObjects.class, ContractPageObjects.class
+    };
+
+    private static final String NO_SELECTOR = "-";
+
+    private static final Map<String, Map<String, Histogram>> histograms = new ConcurrentHashMap<>();
+    private static volatile Map<String, String> selectorNames;
+    private static volatile Boolean enabled;
+
+    /**
+     * Run an action and record how long it took, including when it fails
+     */
+    public static void time(String action, String selector, Runnable body) {
+        if (!isEnabled()) {
+            body.run();
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            body.run();
+        } finally {
+            record(action, selector, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Run an action that returns a value and record how long it took, including when it fails
+     */
+    public static <T> T time(String action, String selector, Supplier<T> body) {
+        if (!isEnabled()) {
+            return body.get();
+        }
+        long start = System.nanoTime();
+        try {
+            return body.get();
+        } finally {
+            record(action, selector, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Record one action duration
+     */
+    public static void record(String action, String selector, long nanos) {
+        Map<String, Histogram> bySelector = histograms.get(action);
+        if (bySelector == null) {
+            bySelector = histograms.computeIfAbsent(action, k -> new ConcurrentHashMap<>());
+        }
+        String key = selector == null ? NO_SELECTOR : selector;
+        Histogram histogram = bySelector.get(key);
+        if (histogram == null) {
+            histogram = bySelector.computeIfAbsent(key, k -> new Histogram());
+        }
+        histogram.record(nanos / 1000);
+    }
+
+    /**
+     * Print p50/p95/p99 per action and selector, slowest total time first
+     */
+    public static void printReport() {
+        List<Map<String, Object>> rows = snapshot();
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        int limit = Integer.parseInt(getProperty("metrics.report.rows", "25"));
+        System.out.println("========== Action latency (ms) ==========");
+        System.out.println(String.format("%-22s %-50s %7s %9s %9s %9s %9s %10s",
+                "Action", "Selector", "Calls", "p50", "p95", "p99", "Max", "Total"));
+        for (Map<String, Object> row : rows.subList(0, Math.min(limit, rows.size()))) {
+            System.out.println(String.format("%-22s %-50s %7d %9.1f %9.1f %9.1f %9.1f %10.1f",
+                    row.get("action"), abbreviate((String) row.get("selector"), 50), row.get("calls"),
+                    row.get("p50Ms"), row.get("p95Ms"), row.get("p99Ms"), row.get("maxMs"), row.get("totalMs")));
+        }
+        if (rows.size() > limit) {
+            System.out.println("... " + (rows.size() - limit) + " more in " + REPORT_FILE);
+        }
+        System.out.println("=========================================");
+    }
+
+    /**
+     * Write every histogram's percentiles to test-results/metrics/action-latency.json
+     */
+    public static void writeJson() {
+        List<Map<String, Object>> rows = snapshot();
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        Path file = Paths.get(REPORT_FILE);
+        try {
+            Files.createDirectories(file.getParent());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), rows);
+            System.out.println("Action latency written to " + file);
+        } catch (IOException e) {
+            System.out.println("Failed to write action latency report: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Drop all recorded durations
+     */
+    public static void reset() {
+        histograms.clear();
+    }
+
+    private static List<Map<String, Object>> snapshot() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Histogram>> action : histograms.entrySet()) {
+            for (Map.Entry<String, Histogram> entry : action.getValue().entrySet()) {
+                Histogram histogram = entry.getValue();
+                long[] counts = histogram.counts();
+                long calls = 0;
+                for (long count : counts) {
+                    calls += count;
+                }
+                if (calls == 0) {
+                    continue;
+                }
+
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("action", action.getKey());
+                row.put("selector", describe(entry.getKey()));
+                row.put("calls", calls);
+                row.put("p50Ms", toMillis(histogram.percentile(counts, calls, 0.50)));
+                row.put("p95Ms", toMillis(histogram.percentile(counts, calls, 0.95)));
+                row.put("p99Ms", toMillis(histogram.percentile(counts, calls, 0.99)));
+                row.put("maxMs", toMillis(histogram.max.get()));
+                row.put("totalMs", toMillis(histogram.totalMicros.sum()));
+                rows.add(row);
+            }
+        }
+        rows.sort(Comparator.comparingDouble((Map<String, Object> row) -> (Double) row.get("totalMs")).reversed());
+        return rows;
+    }
+
+    /**
+     * Page-object constant name of a selector, or the selector itself
+     */
+    private static String describe(String selector) {
+        if (selectorNames == null) {
+            Map<String, String> names = new HashMap<>();
+            for (Class<?> pageObjects : PAGE_OBJECTS) {
+                for (Field field : pageObjects.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) && field.getType() == String.class) {
+                        try {
+                            names.putIfAbsent((String) field.get(null), pageObjects.getSimpleName() + "." + field.getName());
+                        } catch (IllegalAccessException e) {
+                            // Only public constants are page-object selectors
+                        }
+                    }
+                }
+            }
+            selectorNames = names;
+        }
+        return selectorNames.getOrDefault(selector, selector);
+    }
+
+    private static double toMillis(long micros) {
+        return Math.round(micros / 100.0) / 10.0;
+    }
+
+    private static String abbreviate(String text, int width) {
+        return text.length() <= width ? text : text.substring(0, width - 3) + "...";
+    }
+
+    private static boolean isEnabled() {
+        if (enabled == null) {
+            if (BaseClass.prop == null) {
+                return true;
+            }
+            enabled = Boolean.parseBoolean(BaseClass.prop.getProperty("metrics.enabled", "true"));
+        }
+        return enabled;
+    }
+
+    private static String getProperty(String key, String defaultValue) {
+        return BaseClass.prop == null ? defaultValue : BaseClass.prop.getProperty(key, defaultValue);
+    }
+
+    /**
+     * Log-linear histogram of microsecond durations: values below 8 get their own bucket, above
+     * that every power of two is split into 8 equal buckets
+     */
+    static class Histogram {
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        // Up to 2^40 us (about 12 days)
+        private static final int BUCKETS = (40 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder totalMicros = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long micros) {
+            long value = Math.max(0, micros);
+            buckets.incrementAndGet(Math.min(indexOf(value), BUCKETS - 1));
+            totalMicros.add(value);
+            long previous = max.get();
+            while (value > previous && !max.compareAndSet(previous, value)) {
+                previous = max.get();
+            }
+        }
+
+        long[] counts() {
+            long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+            }
+            return counts;
+        }
+
+        /**
+         * Upper bound of the bucket holding the given quantile, capped at the largest value seen
+         */
+        long percentile(long[] counts, long total, double quantile) {
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= Math.max(rank, 1)) {
+                    return Math.min(upperBoundOf(i), max.get());
+                }
+            }
+            return max.get();
+        }
+
+        static int indexOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        static long upperBoundOf(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+            int subBucket = index % SUB_BUCKETS;
+            return ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+        }
+    }
+}
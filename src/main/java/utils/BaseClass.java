@@ -1,22 +1,31 @@
 package utils;
 
 import com.microsoft.playwright.*;
-import com.microsoft.playwright.options.LoadState;
 import com.microsoft.playwright.options.WaitForSelectorState;
+import org.testng.IDataProviderMethod;
+import org.testng.IHookCallBack;
+import org.testng.IHookable;
 import org.testng.ITestContext;
+import org.testng.ITestResult;
 import org.testng.annotations.*;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Properties;
+import java.util.function.Supplier;
 
-public class BaseClass {
+public class BaseClass implements IHookable {
     
-    private static final ThreadLocal<Playwright> playwright = new ThreadLocal<>();
-    private static final ThreadLocal<Browser> browser = new ThreadLocal<>();
+    private static final ThreadLocal<BrowserPool.PooledBrowser> browser = new ThreadLocal<>();
     private static final ThreadLocal<BrowserContext> context = new ThreadLocal<>();
     private static final ThreadLocal<Page> page = new ThreadLocal<>();
+    private static final ThreadLocal<RowScope> rowScope = new ThreadLocal<>();
+    private static final ThreadLocal<UiDriver> driver = new ThreadLocal<>();
+    private static final ThreadLocal<FakeDriver> fakeDriver = ThreadLocal.withInitial(() ->
+            FakeDriver.adlFixture(BaseClass.prop == null ? "about:blank" : BaseClass.prop.getProperty("url", "about:blank")));
+    private static final PlaywrightDriver playwrightDriver = new PlaywrightDriver();
     
     protected static Properties prop;
     protected static String screenshotPath = "";
@@ -25,6 +34,14 @@ public class BaseClass {
     public void beforeSuite() {
         loadProperties();
         createDirectories();
+        
+        // Point the suite at the embedded stand-in application instead of the QA environment
+        if (StandInServer.isEnabled(prop)) {
+            prop.setProperty("url", StandInServer.start(prop) + "/login");
+        }
+        
+        // Probe the environment so a dead one skips the suite instead of timing out every test
+        CircuitBreaker.preflight();
     }
     
     @BeforeClass
@@ -38,46 +55,13 @@ public class BaseClass {
                 return; // Skip browser setup in test mode
             }
             
-            // Initialize Playwright
-            playwright.set(Playwright.create());
-            
-            // Get browser type from properties
-            String browserName = prop.getProperty("browser", "chromium");
-            boolean headless = Boolean.parseBoolean(prop.getProperty("headless", "false"));
-            int slowMo = Integer.parseInt(prop.getProperty("slowMo", "0"));
-            
-            // Create browser
-            BrowserType browserType = getBrowserType(browserName);
-            browser.set(browserType.launch(new BrowserType.LaunchOptions()
-                    .setHeadless(headless)
-                    .setSlowMo(slowMo)));
-            
-            // Create context
-            Browser.NewContextOptions contextOptions = new Browser.NewContextOptions();
-            
-            // Set viewport for mobile if needed
-            if (Boolean.parseBoolean(prop.getProperty("mobile", "false"))) {
-                contextOptions.setViewportSize(375, 667); // iPhone viewport
-            }
-            
-            // Enable video recording if configured
-            if (Boolean.parseBoolean(prop.getProperty("video_recording", "false"))) {
-                contextOptions.setRecordVideoDir(Paths.get("test-results/videos"));
-            }
-            
-            context.set(browser.get().newContext(contextOptions));
-            
-            // Enable tracing for debugging
-            context.get().tracing().start(new Tracing.StartOptions()
-                    .setScreenshots(true)
-                    .setSnapshots(true)
-                    .setSources(true));
+            // Lease a browser from the shared pool and open a fresh context on it
+            HarArchive.bind(getClass());
+            browser.set(BrowserPool.getInstance(prop).acquire());
+            context.set(newContext(browser.get().getBrowser(), null));
             
             // Create page
-            page.set(context.get().newPage());
-            
-            // Set default timeout
-            page.get().setDefaultTimeout(Double.parseDouble(prop.getProperty("timeout", "30000")));
+            page.set(newPage(context.get()));
         } catch (Exception e) {
             System.err.println("Failed to setup browser: " + e.getMessage());
             System.out.println("Continuing in test mode...");
@@ -88,21 +72,66 @@ public class BaseClass {
     @AfterClass
     public void tearDown() {
         if (context.get() != null) {
-            context.get().tracing().stop(new Tracing.StopOptions()
-                    .setPath(Paths.get("test-results/traces/trace.zip")));
             context.get().close();
         }
+        context.remove();
+        page.remove();
         if (browser.get() != null) {
-            browser.get().close();
+            BrowserPool.getInstance(prop).release(browser.get());
+            browser.remove();
+        }
+    }
+    
+    @BeforeMethod(alwaysRun = true)
+    public void beforeMethod(ITestResult result) {
+        boolean retry = RetryAnalyzer.consumeRetry(result);
+        
+        // Rows of a parallel data provider run on their own threads, each in its own context
+        if (isParallelDataProviderRow(result) && !Boolean.parseBoolean(prop.getProperty("test_mode", "false"))) {
+            HarArchive.bind(result.getTestClass().getRealClass());
+            openRowContext();
+        } else if (retry) {
+            // A retried test starts over in a fresh context, nothing carried over from the failed attempt
+            renewContext();
+        }
+        TraceRecorder.beginTest(context.get(), result, retry);
+        ScreencastRecorder.beginTest();
+        NetworkProfile.beginTest();
+    }
+    
+    /**
+     * Run the test unless the environment circuit breaker is open or ResultCache still holds a
+     * pass for this app build, test code and row
+     */
+    @Override
+    public void run(IHookCallBack callBack, ITestResult result) {
+        CircuitBreaker.checkClosed();
+        if (ResultCache.isCachedPass(result)) {
+            // TestNG fails a test whose callback was not invoked unless its status is set
+            result.setStatus(ITestResult.SUCCESS);
+            return;
         }
-        if (playwright.get() != null) {
-            playwright.get().close();
+        callBack.runTestMethod(result);
+    }
+    
+    @AfterMethod(alwaysRun = true)
+    public void afterMethod(ITestResult result) {
+        TraceRecorder.endTest(context.get(), result);
+        NetworkProfile.endTest(result);
+        if (rowScope.get() != null) {
+            closeRowContext();
         }
     }
     
     @AfterSuite
     public void afterSuite() {
-        // Cleanup
+        SyncUtils.printReport();
+        NetworkProfile.printReport();
+        // A distributed worker keeps its browsers and server for the next work item
+        if (!WorkCoordinator.isWorker()) {
+            BrowserPool.shutdownInstance();
+            StandInServer.stop();
+        }
     }
     
     /**
@@ -110,12 +139,35 @@ public class BaseClass {
      */
     public static Page getPage() {
         if (page.get() == null) {
-            // Test mode - return null and let methods handle gracefully
+            // Test mode - page actions run against the FakeDriver instead
             return null;
         }
         return page.get();
     }
     
+    /**
+     * Get the driver page actions run against: the one set with setDriver(), else the Playwright
+     * page of this thread, else (test mode) an in-memory fake of the ADL application
+     */
+    public static UiDriver getDriver() {
+        if (driver.get() != null) {
+            return driver.get();
+        }
+        return page.get() != null ? playwrightDriver : fakeDriver.get();
+    }
+    
+    /**
+     * Run this thread's page actions against a specific driver, e.g. a seeded FakeDriver.
+     * Pass null to go back to the default.
+     */
+    public static void setDriver(UiDriver uiDriver) {
+        if (uiDriver == null) {
+            driver.remove();
+        } else {
+            driver.set(uiDriver);
+        }
+    }
+    
     /**
      * Get the current browser context
      */
@@ -124,42 +176,138 @@ public class BaseClass {
     }
     
     /**
-     * Navigate to the application URL
+     * Replace the current context with a new one on the same leased browser,
+     * optionally starting from a saved storage state (cookies and local storage)
      */
-    public static void navigate() {
-        String url = prop.getProperty("url");
-        Page page = getPage();
-        if (page == null) {
-            System.out.println("Test mode: navigate to " + url);
+    public static void switchContext(Path storageState) {
+        if (browser.get() == null) {
+            System.out.println("Test mode: switchContext " + storageState);
             return;
         }
-        page.navigate(url);
-        page.waitForLoadState(LoadState.NETWORKIDLE);
+        if (context.get() != null) {
+            TraceRecorder.closeContext(context.get());
+        }
+        context.set(newContext(browser.get().getBrowser(), storageState));
+        page.set(newPage(context.get()));
     }
     
     /**
-     * Navigate to a specific URL
+     * Replace the thread's context with a new one on a newly leased browser (or reset the
+     * FakeDriver in test mode)
      */
-    public static void navigate(String url) {
-        Page page = getPage();
-        if (page == null) {
-            System.out.println("Test mode: navigate to " + url);
+    private static void renewContext() {
+        if (browser.get() == null) {
+            fakeDriver.remove();
             return;
         }
-        page.navigate(url);
-        page.waitForLoadState(LoadState.NETWORKIDLE);
+        try {
+            if (context.get() != null) {
+                context.get().close();
+            }
+        } catch (Exception e) {
+            System.out.println("Failed to close context before retry: " + e.getMessage());
+        }
+        BrowserPool.getInstance(prop).release(browser.get());
+        browser.set(BrowserPool.getInstance(prop).acquire());
+        context.set(newContext(browser.get().getBrowser(), null));
+        page.set(newPage(context.get()));
+    }
+    
+    /**
+     * Run an action in a context of its own on the thread's browser (a fresh FakeDriver in test
+     * mode), leaving the current test's page untouched
+     */
+    static <T> T inOwnContext(Supplier<T> action) {
+        if (browser.get() == null) {
+            UiDriver previous = driver.get();
+            setDriver(FakeDriver.adlFixture(prop.getProperty("url", "about:blank")));
+            try {
+                return action.get();
+            } finally {
+                setDriver(previous);
+            }
+        }
+        RowScope scope = new RowScope(browser.get(), context.get(), page.get());
+        context.set(newContext(browser.get().getBrowser(), null));
+        try {
+            // Not newPage(), the screencast stays attached to the test's page
+            page.set(context.get().newPage());
+            page.get().setDefaultTimeout(Double.parseDouble(prop.getProperty("timeout", "30000")));
+            return action.get();
+        } finally {
+            try {
+                context.get().close();
+            } catch (Exception e) {
+                System.out.println("Failed to close context: " + e.getMessage());
+            }
+            scope.restore();
+        }
+    }
+    
+    /**
+     * Lease a browser and open a fresh context for the current data provider row
+     */
+    private static void openRowContext() {
+        RowScope scope = new RowScope(browser.get(), context.get(), page.get());
+        try {
+            browser.set(BrowserPool.getInstance(prop).acquire());
+            context.set(newContext(browser.get().getBrowser(), null));
+            page.set(newPage(context.get()));
+        } catch (RuntimeException e) {
+            if (browser.get() != scope.browser) {
+                BrowserPool.getInstance(prop).release(browser.get());
+            }
+            scope.restore();
+            throw e;
+        }
+        rowScope.set(scope);
+    }
+    
+    /**
+     * Close the row's context, return its browser to the pool and restore the previous state
+     */
+    private static void closeRowContext() {
+        RowScope scope = rowScope.get();
+        rowScope.remove();
+        try {
+            if (context.get() != null) {
+                context.get().close();
+            }
+        } catch (Exception e) {
+            System.out.println("Failed to close row context: " + e.getMessage());
+        } finally {
+            BrowserPool.getInstance(prop).release(browser.get());
+            scope.restore();
+        }
+    }
+    
+    /**
+     * Check if a test invocation is a row of a parallel data provider
+     */
+    protected static boolean isParallelDataProviderRow(ITestResult result) {
+        IDataProviderMethod dataProvider = result.getMethod().getDataProviderMethod();
+        return dataProvider != null && dataProvider.isParallel();
+    }
+    
+    /**
+     * Navigate to the application URL
+     */
+    public static void navigate() {
+        getDriver().navigate(prop.getProperty("url"));
+    }
+    
+    /**
+     * Navigate to a specific URL
+     */
+    public static void navigate(String url) {
+        getDriver().navigate(url);
     }
     
     /**
      * Get page title
      */
     public String getTitle() {
-        Page page = getPage();
-        if (page == null) {
-            System.out.println("Test mode: getTitle");
-            return "Test Mode Title";
-        }
-        return page.title();
+        return getDriver().getTitle();
     }
     
     /**
@@ -198,48 +346,74 @@ public class BaseClass {
     public void wait(int milliseconds) {
         Page page = getPage();
         if (page == null) {
-            System.out.println("Test mode: wait " + milliseconds + "ms");
-            try {
-                Thread.sleep(100); // Short sleep in test mode
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+            // The fake driver applies every action immediately
             return;
         }
         page.waitForTimeout(milliseconds);
     }
     
     /**
-     * Load properties file
+     * Load properties file (also used by listeners that run before the suite starts)
      */
-    private void loadProperties() {
+    static synchronized void loadProperties() {
         if (prop == null) {
-            prop = new Properties();
-            try {
-                FileInputStream fis = new FileInputStream("src/main/resources/config.properties");
-                prop.load(fis);
+            Properties loaded = new Properties();
+            try (FileInputStream fis = new FileInputStream("src/main/resources/config.properties")) {
+                loaded.load(fis);
             } catch (IOException e) {
                 e.printStackTrace();
                 throw new RuntimeException("Failed to load properties file");
             }
+            prop = loaded;
         }
     }
     
     /**
-     * Get browser type based on name
+     * Create a new browser context with the configured options, prepared for tracing
      */
-    private BrowserType getBrowserType(String browserName) {
-        switch (browserName.toLowerCase()) {
-            case "firefox":
-                return playwright.get().firefox();
-            case "webkit":
-            case "safari":
-                return playwright.get().webkit();
-            case "chromium":
-            case "chrome":
-            default:
-                return playwright.get().chromium();
+    protected static BrowserContext newContext(Browser browser, Path storageState) {
+        Browser.NewContextOptions contextOptions = new Browser.NewContextOptions();
+        
+        // Start already authenticated when a saved session is supplied
+        if (storageState != null) {
+            contextOptions.setStorageStatePath(storageState);
+        }
+        
+        // Set viewport for mobile if needed
+        if (Boolean.parseBoolean(prop.getProperty("mobile", "false"))) {
+            contextOptions.setViewportSize(375, 667); // iPhone viewport
         }
+        
+        // Enable video recording if configured
+        if (Boolean.parseBoolean(prop.getProperty("video_recording", "false"))) {
+            contextOptions.setRecordVideoDir(Paths.get("test-results/videos"));
+        }
+        
+        // Record HAR files per test class when har.mode=record
+        HarArchive.configure(contextOptions);
+        
+        BrowserContext newContext = browser.newContext(contextOptions);
+        
+        // Serve recorded responses when har.mode=replay
+        HarArchive.apply(newContext);
+        
+        // Block or stub assets that functional assertions do not need
+        NetworkProfile.apply(newContext);
+        
+        // Tests are traced per method according to the "tracing" mode
+        TraceRecorder.onContextCreated(newContext);
+        
+        return newContext;
+    }
+    
+    /**
+     * Open a page in the given context with the configured default timeout
+     */
+    private static Page newPage(BrowserContext browserContext) {
+        Page newPage = browserContext.newPage();
+        newPage.setDefaultTimeout(Double.parseDouble(prop.getProperty("timeout", "30000")));
+        ScreencastRecorder.attach(newPage);
+        return newPage;
     }
     
     /**
@@ -256,6 +430,27 @@ public class BaseClass {
         }
     }
     
+    /**
+     * Browser, context and page that were bound to a thread before a row context replaced them
+     */
+    private static class RowScope {
+        private final BrowserPool.PooledBrowser browser;
+        private final BrowserContext context;
+        private final Page page;
+        
+        RowScope(BrowserPool.PooledBrowser browser, BrowserContext context, Page page) {
+            this.browser = browser;
+            this.context = context;
+            this.page = page;
+        }
+        
+        void restore() {
+            BaseClass.browser.set(browser);
+            BaseClass.context.set(context);
+            BaseClass.page.set(page);
+        }
+    }
+    
     /**
      * Get current date
      */
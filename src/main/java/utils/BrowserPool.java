@@ -0,0 +1,267 @@
+package utils;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.Playwright;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-JVM pool of launched browsers shared by all test classes.
+ *
+ * Each pooled browser owns its own Playwright driver and is leased
+ * exclusively to one thread at a time, so Playwright's single-thread
+ * contract is respected while the driver spawn and browser cold start are
+ * paid only once per pool slot instead of once per test class.
+ */
+public class BrowserPool {
+
+    private static BrowserPool instance;
+
+    private final Properties prop;
+    private final int size;
+    private final long leaseTimeoutMillis;
+    private final LinkedBlockingDeque<PooledBrowser> idle = new LinkedBlockingDeque<>();
+    private final List<PooledBrowser> all = new ArrayList<>();
+    private int launched;
+    private volatile boolean shutdown;
+
+    private BrowserPool(Properties prop) {
+        this.prop = prop;
+        this.size = Math.max(1, Integer.parseInt(prop.getProperty("browser.pool.size",
+                prop.getProperty("parallel.thread.count", "5"))));
+        this.leaseTimeoutMillis = Long.parseLong(prop.getProperty("browser.pool.lease.timeout", "300000"));
+    }
+
+    /**
+     * Get the pool for this JVM, creating it on first use
+     */
+    public static synchronized BrowserPool getInstance(Properties prop) {
+        if (instance == null || instance.shutdown) {
+            instance = new BrowserPool(prop);
+        }
+        return instance;
+    }
+
+    /**
+     * Close every browser in the pool if one was created
+     */
+    public static synchronized void shutdownInstance() {
+        if (instance != null) {
+            instance.shutdown();
+            instance = null;
+        }
+    }
+
+    /**
+     * Lease a healthy browser, launching a new one while the pool is below its size
+     */
+    public PooledBrowser acquire() {
+        if (shutdown) {
+            throw new IllegalStateException("Browser pool has been shut down");
+        }
+
+        PooledBrowser pooled = idle.pollFirst();
+        if (pooled == null) {
+            pooled = launchIfBelowSize();
+        }
+        if (pooled == null) {
+            System.out.println("All " + size + " pooled browsers are leased - waiting for one (browser.pool.size)");
+            try {
+                pooled = idle.pollFirst(leaseTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for a pooled browser", e);
+            }
+            if (pooled == null) {
+                throw new RuntimeException("No pooled browser became available within "
+                        + leaseTimeoutMillis + "ms (browser.pool.size=" + size + ")");
+            }
+        }
+
+        if (!pooled.isHealthy()) {
+            System.out.println("Pooled browser #" + pooled.getId() + " is not healthy - relaunching");
+            try {
+                pooled.relaunch();
+            } catch (RuntimeException e) {
+                // Free the slot so a later acquire can launch a replacement
+                remove(pooled);
+                throw e;
+            }
+        }
+        return pooled;
+    }
+
+    /**
+     * Return a leased browser to the pool
+     */
+    public void release(PooledBrowser pooled) {
+        if (pooled == null) {
+            return;
+        }
+        if (shutdown) {
+            pooled.close();
+            return;
+        }
+        idle.offerFirst(pooled);
+    }
+
+    /**
+     * Close all browsers and their Playwright drivers
+     */
+    public void shutdown() {
+        shutdown = true;
+        List<PooledBrowser> browsers;
+        synchronized (all) {
+            browsers = new ArrayList<>(all);
+            all.clear();
+        }
+        idle.clear();
+        for (PooledBrowser pooled : browsers) {
+            pooled.close();
+        }
+        if (!browsers.isEmpty()) {
+            System.out.println("Browser pool shut down (" + browsers.size() + " browser(s) closed)");
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Reserve a slot under the lock and launch outside it, so cold starts run in parallel
+     */
+    private PooledBrowser launchIfBelowSize() {
+        PooledBrowser pooled;
+        synchronized (all) {
+            if (all.size() >= size) {
+                return null;
+            }
+            pooled = new PooledBrowser(++launched, prop);
+            all.add(pooled);
+        }
+        try {
+            pooled.launch();
+        } catch (RuntimeException e) {
+            remove(pooled);
+            throw e;
+        }
+        return pooled;
+    }
+
+    private void remove(PooledBrowser pooled) {
+        pooled.close();
+        synchronized (all) {
+            all.remove(pooled);
+        }
+    }
+
+    /**
+     * A Playwright driver plus the browser it launched
+     */
+    public static class PooledBrowser {
+
+        private final int id;
+        private final Properties prop;
+        private Playwright playwright;
+        private Browser browser;
+
+        PooledBrowser(int id, Properties prop) {
+            this.id = id;
+            this.prop = prop;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public Playwright getPlaywright() {
+            return playwright;
+        }
+
+        public Browser getBrowser() {
+            return browser;
+        }
+
+        public String getBrowserName() {
+            return browser.browserType().name();
+        }
+
+        /**
+         * Health check - the driver is alive and the browser is still connected
+         */
+        public boolean isHealthy() {
+            try {
+                return browser != null && browser.isConnected();
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        void relaunch() {
+            close();
+            launch();
+        }
+
+        void close() {
+            try {
+                if (browser != null) {
+                    browser.close();
+                }
+            } catch (Exception e) {
+                System.out.println("Failed to close pooled browser #" + id + ": " + e.getMessage());
+            }
+            try {
+                if (playwright != null) {
+                    playwright.close();
+                }
+            } catch (Exception e) {
+                System.out.println("Failed to close Playwright for pooled browser #" + id + ": " + e.getMessage());
+            }
+            browser = null;
+            playwright = null;
+        }
+
+        private void launch() {
+            long start = System.currentTimeMillis();
+            playwright = Playwright.create();
+
+            String browserName = prop.getProperty("browser", "chromium");
+            boolean headless = Boolean.parseBoolean(prop.getProperty("headless", "false"));
+            int slowMo = Integer.parseInt(prop.getProperty("slowMo", "0"));
+
+            try {
+                browser = getBrowserType(browserName).launch(new BrowserType.LaunchOptions()
+                        .setHeadless(headless)
+                        .setSlowMo(slowMo));
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            }
+            System.out.println("Pooled browser #" + id + " (" + browserName + ") launched in "
+                    + (System.currentTimeMillis() - start) + "ms");
+        }
+
+        /**
+         * Get browser type based on name
+         */
+        private BrowserType getBrowserType(String browserName) {
+            switch (browserName.toLowerCase()) {
+                case "firefox":
+                    return playwright.firefox();
+                case "webkit":
+                case "safari":
+                    return playwright.webkit();
+                case "chromium":
+                case "chrome":
+                default:
+                    return playwright.chromium();
+            }
+        }
+    }
+}
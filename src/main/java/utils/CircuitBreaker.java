@@ -0,0 +1,162 @@
+package utils;
+
+import com.microsoft.playwright.PlaywrightException;
+import com.microsoft.playwright.TimeoutError;
+import org.testng.ITestResult;
+import org.testng.SkipException;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Fails fast when the QA environment is down instead of letting every test wait out its timeouts.
+ *
+ * preflight() runs in @BeforeSuite and probes the app URL, the login page and the auth endpoint
+ * (preflight.*) concurrently; a probe fails on a connection error, a timeout or a 5xx response.
+ * During the run TestListener reports every failed attempt: breaker.failures consecutive
+ * infrastructure failures (Playwright timeouts, net::ERR_* navigation errors, closed browsers,
+ * refused connections) open the breaker, while a pass or any other failure resets the count.
+ * Once the breaker is open, by a failed preflight or during the run, BaseClass skips the
+ * remaining tests with the reason. It stays open until the end of the run.
+ */
+public class CircuitBreaker {
+
+    private static final Pattern INFRASTRUCTURE_MESSAGE = Pattern.compile(
+            "net::ERR_|ECONNREFUSED|ECONNRESET|ENOTFOUND|Timeout \\d+ms exceeded|Target .*closed|Browser has been closed");
+    private static final AtomicInteger consecutive = new AtomicInteger();
+    private static final AtomicInteger skipped = new AtomicInteger();
+    private static volatile String openReason;
+    private static boolean probed;
+
+    /**
+     * Probe the environment once per JVM; the breaker opens when a probe fails
+     */
+    public static synchronized void preflight() {
+        BaseClass.loadProperties();
+        if (probed || !Boolean.parseBoolean(BaseClass.prop.getProperty("preflight.enabled", "true"))
+                || Boolean.parseBoolean(BaseClass.prop.getProperty("test_mode", "false"))
+                || "replay".equalsIgnoreCase(BaseClass.prop.getProperty("har.mode", "off").trim())) {
+            return;
+        }
+        probed = true;
+
+        URI login = URI.create(BaseClass.prop.getProperty("url"));
+        Map<String, URI> targets = new LinkedHashMap<>();
+        targets.put("app", login.resolve(BaseClass.prop.getProperty("preflight.app.url", "/")));
+        targets.put("login", login);
+        targets.put("auth", login.resolve(BaseClass.prop.getProperty("preflight.auth.url", "/api/login")));
+
+        Duration timeout = Duration.ofMillis(Long.parseLong(BaseClass.prop.getProperty("preflight.timeout", "5000")));
+        HttpClient client = HttpClient.newBuilder().connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NORMAL).build();
+        long start = System.currentTimeMillis();
+        Map<String, CompletableFuture<String>> probes = new LinkedHashMap<>();
+        for (Map.Entry<String, URI> target : targets.entrySet()) {
+            long probeStart = System.currentTimeMillis();
+            HttpRequest request = HttpRequest.newBuilder(target.getValue()).timeout(timeout).GET().build();
+            probes.put(target.getKey(), client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        long millis = System.currentTimeMillis() - probeStart;
+                        if (error != null) {
+                            Throwable cause = error.getCause() == null ? error : error.getCause();
+                            return "DOWN " + cause.getClass().getSimpleName() + " after " + millis + " ms";
+                        }
+                        return (response.statusCode() >= 500 ? "DOWN " : "") + "HTTP " + response.statusCode()
+                                + " in " + millis + " ms";
+                    }));
+        }
+
+        List<String> down = new ArrayList<>();
+        System.out.println("Preflight of " + login.getHost() + ":");
+        for (Map.Entry<String, CompletableFuture<String>> probe : probes.entrySet()) {
+            String outcome = probe.getValue().join();
+            System.out.println(String.format("  %-6s %-50s %s", probe.getKey(), targets.get(probe.getKey()), outcome));
+            if (outcome.startsWith("DOWN ")) {
+                down.add(probe.getKey() + " " + targets.get(probe.getKey()) + " " + outcome.substring(5));
+            }
+        }
+        System.out.println("  done in " + (System.currentTimeMillis() - start) + " ms");
+        if (!down.isEmpty()) {
+            open("preflight failed - " + String.join("; ", down));
+        }
+    }
+
+    /**
+     * Skip the test when the breaker is open
+     */
+    public static void checkClosed() {
+        String reason = openReason;
+        if (reason != null) {
+            skipped.incrementAndGet();
+            throw new SkipException("Environment circuit breaker open: " + reason);
+        }
+    }
+
+    /**
+     * Count a failed attempt towards opening the breaker, or reset the count for a pass or a test failure
+     */
+    public static void record(ITestResult result) {
+        if (result.getStatus() == ITestResult.SUCCESS || !isInfrastructureFailure(result.getThrowable())) {
+            consecutive.set(0);
+            return;
+        }
+        int limit = Integer.parseInt(BaseClass.prop.getProperty("breaker.failures", "3"));
+        if (limit > 0 && consecutive.incrementAndGet() >= limit && openReason == null) {
+            open(limit + " consecutive infrastructure failures, the last in "
+                    + result.getTestClass().getRealClass().getSimpleName() + "." + TestListener.getTestName(result)
+                    + ": " + firstLine(result.getThrowable()));
+        }
+    }
+
+    /**
+     * Print why the breaker opened and how many tests it skipped
+     */
+    public static void printReport() {
+        if (openReason != null && skipped.get() > 0) {
+            System.out.println("Environment circuit breaker skipped " + skipped.getAndSet(0) + " test(s): " + openReason);
+        }
+    }
+
+    /**
+     * Timeouts, connection and navigation errors and closed browsers, anywhere in the cause chain
+     */
+    static boolean isInfrastructureFailure(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutError || cause instanceof ConnectException || cause instanceof UnknownHostException
+                    || cause instanceof SocketTimeoutException || cause instanceof HttpTimeoutException) {
+                return true;
+            }
+            if (cause instanceof PlaywrightException && INFRASTRUCTURE_MESSAGE.matcher(String.valueOf(cause.getMessage())).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static synchronized void open(String reason) {
+        if (openReason == null) {
+            openReason = reason;
+            System.out.println("Environment circuit breaker opened, skipping the remaining tests: " + reason);
+        }
+    }
+
+    private static String firstLine(Throwable throwable) {
+        String message = String.valueOf(throwable.getMessage()).trim();
+        int newline = message.indexOf('\n');
+        return newline < 0 ? message : message.substring(0, newline);
+    }
+}
@@ -1,110 +1,60 @@
 package utils;
 
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.testng.annotations.DataProvider;
 
-import java.io.FileInputStream;
-import java.io.IOException;
 import java.util.HashMap;
+import java.util.Iterator;
 
 public class DataProviderUtils {
     
+    private static final String TEST_DATA_FILE = "src/test/resources/testdata.xlsx";
+    
     /**
      * Generic data provider for Excel files
      */
     @DataProvider(name = "excelData")
-    public Object[][] getExcelData() {
-        return readExcelData("src/test/resources/testdata.xlsx", "Test");
+    public Iterator<Object[]> getExcelData() {
+        return readExcelData(TEST_DATA_FILE, "Test");
     }
     
-    @DataProvider(name = "loginData")
-    public Object[][] getLoginData() {
-        return readExcelData("src/test/resources/testdata.xlsx", "Login");
+    @DataProvider(name = "loginData", parallel = true)
+    public Iterator<Object[]> getLoginData() {
+        return readExcelData(TEST_DATA_FILE, "Login");
     }
     
-    @DataProvider(name = "contractData")
-    public Object[][] getContractData() {
-        return readExcelData("src/test/resources/testdata.xlsx", "Contract");
+    @DataProvider(name = "contractData", parallel = true)
+    public Iterator<Object[]> getContractData() {
+        return readExcelData(TEST_DATA_FILE, "Contract");
     }
     
-    @DataProvider(name = "lenderData")
-    public Object[][] getLenderData() {
-        return readExcelData("src/test/resources/testdata.xlsx", "Lender");
+    @DataProvider(name = "lenderData", parallel = true)
+    public Iterator<Object[]> getLenderData() {
+        return readExcelData(TEST_DATA_FILE, "Lender");
     }
     
-    @DataProvider(name = "twoProgramData")
-    public Object[][] getTwoProgramData() {
-        return readExcelData("src/test/resources/testdata.xlsx", "Two_program");
+    @DataProvider(name = "twoProgramData", parallel = true)
+    public Iterator<Object[]> getTwoProgramData() {
+        return readExcelData(TEST_DATA_FILE, "Two_program");
     }
     
     /**
-     * Read data from Excel file
+     * Lazily iterate the data rows of a sheet. The workbook is parsed once per run by
+     * ExcelDataCache; each row is handed out as a copy so tests cannot change the cache.
      */
-    private Object[][] readExcelData(String filePath, String sheetName) {
-        Object[][] excelData = null;
+    private Iterator<Object[]> readExcelData(String filePath, String sheetName) {
+        Iterator<String[]> rows = ExcelDataCache.getRows(filePath, sheetName).iterator();
         
-        try (FileInputStream fis = new FileInputStream(filePath);
-             XSSFWorkbook workbook = new XSSFWorkbook(fis)) {
-            
-            Sheet sheet = workbook.getSheet(sheetName);
-            if (sheet == null) {
-                throw new RuntimeException("Sheet '" + sheetName + "' not found in " + filePath);
+        return new Iterator<Object[]>() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
             }
             
-            int totalRows = sheet.getLastRowNum() - sheet.getFirstRowNum();
-            excelData = new Object[totalRows][1];
-            
-            int totalColumns = sheet.getRow(0).getLastCellNum();
-            
-            for (int i = 1; i <= totalRows; i++) {
-                String[] rowData = new String[totalColumns];
-                Row row = sheet.getRow(i);
-                
-                if (row == null) continue;
-                
-                for (int j = 0; j < totalColumns; j++) {
-                    Cell cell = row.getCell(j);
-                    String cellValue = getCellValue(cell);
-                    rowData[j] = cellValue;
-                }
-                
-                excelData[i - 1][0] = rowData;
+            @Override
+            public Object[] next() {
+                return new Object[] {rows.next().clone()};
             }
-            
-        } catch (IOException e) {
-            e.printStackTrace();
-            throw new RuntimeException("Failed to read Excel file: " + filePath, e);
-        }
-        
-        return excelData;
-    }
-    
-    /**
-     * Get cell value as string regardless of cell type
-     */
-    private String getCellValue(Cell cell) {
-        if (cell == null) {
-            return "";
-        }
-        
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
-                } else {
-                    return String.valueOf((long) cell.getNumericCellValue());
-                }
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                return cell.getCellFormula();
-            case BLANK:
-            default:
-                return "";
-        }
+        };
     }
     
     /**
@@ -0,0 +1,103 @@
+package utils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Point-in-time view of one element, read together with all other matches of a locator
+ * in a single round-trip by PlaywrightUtils.queryAll()
+ */
+public class ElementSnapshot {
+
+    private final int index;
+    private final String text;
+    private final String innerText;
+    private final Map<String, String> attributes;
+    private final boolean visible;
+    private final double x;
+    private final double y;
+    private final double width;
+    private final double height;
+
+    ElementSnapshot(int index, Map<String, Object> data) {
+        this.index = index;
+        this.text = (String) data.get("text");
+        this.innerText = (String) data.get("innerText");
+        this.visible = Boolean.TRUE.equals(data.get("visible"));
+        this.x = toDouble(data.get("x"));
+        this.y = toDouble(data.get("y"));
+        this.width = toDouble(data.get("width"));
+        this.height = toDouble(data.get("height"));
+
+        Map<String, String> attributeMap = new LinkedHashMap<>();
+        Object rawAttributes = data.get("attributes");
+        if (rawAttributes instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) rawAttributes).entrySet()) {
+                attributeMap.put(String.valueOf(entry.getKey()), String.valueOf(entry.getValue()));
+            }
+        }
+        this.attributes = Collections.unmodifiableMap(attributeMap);
+    }
+
+    /**
+     * Position of the element among the matches
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * The element's textContent
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * The element's rendered innerText (null for non-HTML elements)
+     */
+    public String getInnerText() {
+        return innerText;
+    }
+
+    public String getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    public Map<String, String> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Visible in the Playwright sense - a non-empty box and not visibility:hidden
+     */
+    public boolean isVisible() {
+        return visible;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getWidth() {
+        return width;
+    }
+
+    public double getHeight() {
+        return height;
+    }
+
+    @Override
+    public String toString() {
+        return "ElementSnapshot[" + index + "] visible=" + visible + " text=" + text;
+    }
+
+    private static double toDouble(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
+}
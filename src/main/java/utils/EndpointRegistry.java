@@ -0,0 +1,78 @@
+package utils;
+
+import com.microsoft.playwright.Response;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Maps page actions to the backend endpoints they trigger, so an action can wait for exactly
+ * those responses instead of waiting for the network to go idle.
+ *
+ * Endpoints are configured only in config.properties with endpoint.&lt;action&gt; entries, e.g.
+ * endpoint.calculateQuote=POST (?i).*&#47;api/.*quote.* - several endpoints are separated by ';'
+ * and the HTTP method prefix is optional. An action without endpoints fails unless
+ * endpoint.settle.fallback=true lets it wait for the page to settle instead.
+ */
+public class EndpointRegistry {
+
+    /**
+     * Get the endpoints registered for an action
+     */
+    public static List<Endpoint> getEndpoints(String action) {
+        String definition = BaseClass.prop == null ? null : BaseClass.prop.getProperty("endpoint." + action);
+        if (definition == null || definition.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Endpoint> endpoints = new ArrayList<>();
+        for (String entry : definition.split(";")) {
+            if (!entry.trim().isEmpty()) {
+                endpoints.add(Endpoint.parse(entry.trim()));
+            }
+        }
+        return endpoints;
+    }
+
+    /**
+     * Check if actions without registered endpoints may wait for the page to settle instead of failing
+     */
+    public static boolean isSettleFallbackEnabled() {
+        return BaseClass.prop != null
+                && Boolean.parseBoolean(BaseClass.prop.getProperty("endpoint.settle.fallback", "false"));
+    }
+
+    /**
+     * A backend endpoint - optional HTTP method plus a URL regex
+     */
+    public static class Endpoint {
+
+        private final String method;
+        private final Pattern urlPattern;
+
+        Endpoint(String method, Pattern urlPattern) {
+            this.method = method;
+            this.urlPattern = urlPattern;
+        }
+
+        static Endpoint parse(String definition) {
+            String[] parts = definition.split("\\s+", 2);
+            if (parts.length == 2 && parts[0].matches("[A-Z]+")) {
+                return new Endpoint(parts[0], Pattern.compile(parts[1]));
+            }
+            return new Endpoint(null, Pattern.compile(definition));
+        }
+
+        public boolean matches(Response response) {
+            return (method == null || method.equalsIgnoreCase(response.request().method()))
+                    && urlPattern.matcher(response.url()).matches();
+        }
+
+        @Override
+        public String toString() {
+            return (method == null ? "" : method + " ") + urlPattern.pattern();
+        }
+    }
+}
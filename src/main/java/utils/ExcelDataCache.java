@@ -0,0 +1,123 @@
+package utils;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Run-wide cache of Excel test data.
+ *
+ * Each workbook is parsed once with the XSSF streaming (SAX) reader instead of building an
+ * XSSFWorkbook DOM, and every sheet is kept as an immutable list of rows. The first row of a
+ * sheet is treated as the header and defines the column count; it is not returned as data.
+ */
+public class ExcelDataCache {
+
+    private static final Map<String, Map<String, List<String[]>>> workbooks = new ConcurrentHashMap<>();
+
+    /**
+     * Get the data rows of a sheet, parsing the workbook on first use
+     */
+    public static List<String[]> getRows(String filePath, String sheetName) {
+        Map<String, List<String[]>> sheets = workbooks.computeIfAbsent(filePath, ExcelDataCache::parseWorkbook);
+        List<String[]> rows = sheets.get(sheetName);
+        if (rows == null) {
+            throw new RuntimeException("Sheet '" + sheetName + "' not found in " + filePath);
+        }
+        return rows;
+    }
+
+    /**
+     * Drop all cached workbooks
+     */
+    public static void clear() {
+        workbooks.clear();
+    }
+
+    private static Map<String, List<String[]>> parseWorkbook(String filePath) {
+        long start = System.currentTimeMillis();
+        Map<String, List<String[]>> sheets = new HashMap<>();
+
+        try (OPCPackage pkg = OPCPackage.open(filePath, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+            DataFormatter formatter = new DataFormatter();
+
+            XSSFReader.SheetIterator iterator = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (iterator.hasNext()) {
+                try (InputStream sheetStream = iterator.next()) {
+                    SheetCollector collector = new SheetCollector();
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    // Formulas are returned as formula text, as the DOM reader did
+                    parser.setContentHandler(new XSSFSheetXMLHandler(styles, strings, collector, formatter, true));
+                    parser.parse(new InputSource(sheetStream));
+                    sheets.put(iterator.getSheetName(), collector.getRows());
+                }
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to read Excel file: " + filePath, e);
+        }
+
+        System.out.println("Parsed " + filePath + " (" + sheets.size() + " sheets) in "
+                + (System.currentTimeMillis() - start) + "ms");
+        return Collections.unmodifiableMap(sheets);
+    }
+
+    /**
+     * Collects the rows of one sheet as it is streamed
+     */
+    private static class SheetCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final List<String[]> rows = new ArrayList<>();
+        private final Map<Integer, String> currentRow = new HashMap<>();
+        private int columnCount = -1;
+
+        @Override
+        public void startRow(int rowNum) {
+            currentRow.clear();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (columnCount < 0) {
+                // Header row
+                columnCount = currentRow.keySet().stream().mapToInt(Integer::intValue).max().orElse(-1) + 1;
+                return;
+            }
+
+            String[] rowData = new String[columnCount];
+            for (int j = 0; j < columnCount; j++) {
+                rowData[j] = currentRow.getOrDefault(j, "");
+            }
+            rows.add(rowData);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = new CellReference(cellReference).getCol();
+            currentRow.put(column, formattedValue == null ? "" : formattedValue);
+        }
+
+        List<String[]> getRows() {
+            return Collections.unmodifiableList(rows);
+        }
+    }
+}
@@ -0,0 +1,619 @@
+package utils;
+
+import com.microsoft.playwright.Response;
+import com.microsoft.playwright.options.SelectOption;
+import com.microsoft.playwright.options.WaitForSelectorState;
+import pageObjects.ContractPageObjects;
+import pageObjects.DashboardPageObjects;
+import pageObjects.LoginPageObjects;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * In-memory UiDriver for running page-action logic without a browser.
+ *
+ * The fake DOM maps locators to FakeElements that hold text, value, visibility, options and an
+ * optional click handler. Elements are found by the exact selector string (css and xpath locators
+ * share one namespace), so page actions resolve the same page object constants the tests seed.
+ * Like Playwright, single-element operations fail on a missing or hidden element and on a locator
+ * that matches more than one element. In lenient mode missing elements are created on demand as
+ * visible, empty elements instead.
+ *
+ * Every operation is appended to getActions() so tests can assert what a page action did.
+ */
+public class FakeDriver implements UiDriver {
+
+    private final Map<String, List<FakeElement>> dom = new LinkedHashMap<>();
+    private final Map<String, Runnable> keyHandlers = new HashMap<>();
+    private final List<String> actions = new ArrayList<>();
+    private Consumer<FakeDriver> pageLoader;
+    private boolean lenient;
+    private String url = "about:blank";
+    private String title = "";
+
+    /**
+     * Fake DOM of the ADL application, opened at startUrl, with the login, dashboard and contract
+     * flows scripted. Lenient, so page actions touching unseeded elements keep working.
+     */
+    public static FakeDriver adlFixture(String startUrl) {
+        FakeDriver fake = new FakeDriver();
+        fake.setLenient(true);
+        fake.onNavigate(FakeDriver::loadAdl);
+        fake.navigate(startUrl);
+        return fake;
+    }
+
+    // ---- Setting up the fake DOM ----
+
+    /**
+     * Get the first element matching a locator, creating it if needed
+     */
+    public FakeElement element(String locatorType, String locatorValue) {
+        List<FakeElement> matches = dom.computeIfAbsent(key(locatorType, locatorValue), k -> new ArrayList<>());
+        if (matches.isEmpty()) {
+            matches.add(new FakeElement());
+        }
+        return matches.get(0);
+    }
+
+    /**
+     * Replace the matches of a locator with count new elements
+     */
+    public List<FakeElement> elements(String locatorType, String locatorValue, int count) {
+        List<FakeElement> matches = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            matches.add(new FakeElement());
+        }
+        dom.put(key(locatorType, locatorValue), matches);
+        return matches;
+    }
+
+    /**
+     * Remove every element matching a locator
+     */
+    public FakeDriver remove(String locatorType, String locatorValue) {
+        dom.remove(key(locatorType, locatorValue));
+        return this;
+    }
+
+    /**
+     * Run a handler when a key is pressed
+     */
+    public FakeDriver onKey(String key, Runnable handler) {
+        keyHandlers.put(key, handler);
+        return this;
+    }
+
+    /**
+     * Rebuild the fake DOM with a loader on every navigate()
+     */
+    public FakeDriver onNavigate(Consumer<FakeDriver> loader) {
+        this.pageLoader = loader;
+        return this;
+    }
+
+    public FakeDriver setLenient(boolean lenient) {
+        this.lenient = lenient;
+        return this;
+    }
+
+    public FakeDriver setUrl(String url) {
+        this.url = url;
+        return this;
+    }
+
+    public FakeDriver setTitle(String title) {
+        this.title = title;
+        return this;
+    }
+
+    /**
+     * Current value of the first element matching a locator ("" if there is none)
+     */
+    public String valueOf(String locatorType, String locatorValue) {
+        List<FakeElement> matches = dom.get(key(locatorType, locatorValue));
+        return matches == null || matches.isEmpty() ? "" : matches.get(0).getValue();
+    }
+
+    /**
+     * Operations performed since the last navigate()
+     */
+    public List<String> getActions() {
+        return Collections.unmodifiableList(actions);
+    }
+
+    // ---- UiDriver ----
+
+    @Override
+    public void click(String locatorType, String locatorValue, int index) {
+        FakeElement element = resolveVisible(locatorType, locatorValue, index);
+        log("click", locatorType, locatorValue);
+        if (!element.enabled) {
+            throw new RuntimeException("FakeDriver: element is disabled: " + key(locatorType, locatorValue));
+        }
+        if (element.onClick != null) {
+            element.onClick.run();
+        }
+    }
+
+    @Override
+    public void fill(String locatorType, String locatorValue, int index, String text) {
+        log("fill", locatorType, locatorValue + " text=" + text);
+        resolveVisible(locatorType, locatorValue, index).value = text;
+    }
+
+    @Override
+    public void clear(String locatorType, String locatorValue, int index) {
+        log("clear", locatorType, locatorValue);
+        resolveVisible(locatorType, locatorValue, index).value = "";
+    }
+
+    @Override
+    public String getText(String locatorType, String locatorValue, int index) {
+        return resolveVisible(locatorType, locatorValue, index).text;
+    }
+
+    @Override
+    public String getAttribute(String locatorType, String locatorValue, String attributeName) {
+        FakeElement element = resolveVisible(locatorType, locatorValue, ANY_MATCH);
+        return "value".equals(attributeName) ? element.value : element.attributes.get(attributeName);
+    }
+
+    @Override
+    public String getCssValue(String locatorType, String locatorValue, String property) {
+        return resolve(locatorType, locatorValue, ANY_MATCH).css.getOrDefault(property, "");
+    }
+
+    @Override
+    public boolean isVisible(String locatorType, String locatorValue) {
+        List<FakeElement> matches = find(locatorType, locatorValue);
+        return matches.isEmpty() ? lenient : matches.get(0).visible;
+    }
+
+    @Override
+    public boolean isEnabled(String locatorType, String locatorValue) {
+        List<FakeElement> matches = find(locatorType, locatorValue);
+        return matches.isEmpty() ? lenient : matches.get(0).enabled;
+    }
+
+    @Override
+    public boolean isChecked(String locatorType, String locatorValue) {
+        return resolve(locatorType, locatorValue, ANY_MATCH).checked;
+    }
+
+    @Override
+    public void setChecked(String locatorType, String locatorValue, boolean checked) {
+        log(checked ? "check" : "uncheck", locatorType, locatorValue);
+        resolveVisible(locatorType, locatorValue, ANY_MATCH).checked = checked;
+    }
+
+    @Override
+    public void waitFor(String locatorType, String locatorValue, WaitForSelectorState state) {
+        List<FakeElement> matches = find(locatorType, locatorValue);
+        boolean satisfied;
+        switch (state) {
+            case HIDDEN:
+                satisfied = matches.isEmpty() || !matches.get(0).visible;
+                break;
+            case DETACHED:
+                satisfied = matches.isEmpty();
+                break;
+            case ATTACHED:
+                satisfied = !matches.isEmpty() || lenient;
+                break;
+            default:
+                satisfied = matches.isEmpty() ? lenient : matches.get(0).visible;
+        }
+        if (!satisfied) {
+            throw new RuntimeException("FakeDriver: " + key(locatorType, locatorValue) + " is not " + state);
+        }
+    }
+
+    @Override
+    public int count(String locatorType, String locatorValue) {
+        return find(locatorType, locatorValue).size();
+    }
+
+    @Override
+    public List<ElementSnapshot> queryAll(String locatorType, String locatorValue) {
+        List<ElementSnapshot> snapshots = new ArrayList<>();
+        List<FakeElement> matches = find(locatorType, locatorValue);
+        for (int i = 0; i < matches.size(); i++) {
+            snapshots.add(new ElementSnapshot(i, matches.get(i).toSnapshotData(i)));
+        }
+        return snapshots;
+    }
+
+    @Override
+    public List<String> fillForm(Map<String, String> fields) {
+        List<String> rejected = new ArrayList<>();
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            List<FakeElement> matches = find("css", field.getKey());
+            if (matches.isEmpty() && lenient) {
+                matches = Collections.singletonList(element("css", field.getKey()));
+            }
+            if (matches.isEmpty() || !matches.get(0).enabled) {
+                rejected.add(field.getKey());
+                continue;
+            }
+            log("fill", "css", field.getKey() + " text=" + field.getValue());
+            matches.get(0).value = field.getValue();
+        }
+        return rejected;
+    }
+
+    @Override
+    public void selectOption(String locatorType, String locatorValue, String valueOrLabel) {
+        log("select", locatorType, locatorValue + " option=" + valueOrLabel);
+        FakeElement select = resolveVisible(locatorType, locatorValue, ANY_MATCH);
+        select.select(select.options.indexOf(valueOrLabel));
+    }
+
+    @Override
+    public void selectOption(String locatorType, String locatorValue, SelectOption option) {
+        FakeElement select = resolveVisible(locatorType, locatorValue, ANY_MATCH);
+        int index = option.index != null ? option.index
+                : select.options.indexOf(option.value != null ? option.value : option.label);
+        log("select", locatorType, locatorValue + " option=" + index);
+        select.select(index);
+    }
+
+    @Override
+    public void hover(String locatorType, String locatorValue) {
+        resolveVisible(locatorType, locatorValue, ANY_MATCH);
+        log("hover", locatorType, locatorValue);
+    }
+
+    @Override
+    public void doubleClick(String locatorType, String locatorValue) {
+        click(locatorType, locatorValue, ANY_MATCH);
+        click(locatorType, locatorValue, ANY_MATCH);
+    }
+
+    @Override
+    public void rightClick(String locatorType, String locatorValue) {
+        resolveVisible(locatorType, locatorValue, ANY_MATCH);
+        log("rightClick", locatorType, locatorValue);
+    }
+
+    @Override
+    public void scrollIntoView(String locatorType, String locatorValue) {
+        resolve(locatorType, locatorValue, ANY_MATCH);
+        log("scrollIntoView", locatorType, locatorValue);
+    }
+
+    @Override
+    public void uploadFile(String locatorType, String locatorValue, Path file) {
+        log("upload", locatorType, locatorValue + " file=" + file);
+        resolve(locatorType, locatorValue, ANY_MATCH).value = file.getFileName().toString();
+    }
+
+    @Override
+    public void pressKey(String key) {
+        actions.add("press " + key);
+        Runnable handler = keyHandlers.get(key);
+        if (handler != null) {
+            handler.run();
+        }
+    }
+
+    @Override
+    public void typeKeys(String text) {
+        actions.add("type " + text);
+    }
+
+    @Override
+    public void scrollBy(int x, int y) {
+        actions.add("scrollBy " + x + "," + y);
+    }
+
+    @Override
+    public Object evaluate(String script) {
+        actions.add("evaluate " + script);
+        return null;
+    }
+
+    @Override
+    public void navigate(String url) {
+        actions.clear();
+        this.url = url;
+        if (pageLoader != null) {
+            dom.clear();
+            keyHandlers.clear();
+            pageLoader.accept(this);
+        }
+        actions.add("navigate " + url);
+    }
+
+    @Override
+    public String getUrl() {
+        return url;
+    }
+
+    @Override
+    public String getTitle() {
+        return title;
+    }
+
+    @Override
+    public void reload() {
+        navigate(url);
+    }
+
+    @Override
+    public void goBack() {
+        actions.add("back");
+    }
+
+    @Override
+    public void goForward() {
+        actions.add("forward");
+    }
+
+    @Override
+    public void waitForLoad() {
+        actions.add("waitForLoad");
+    }
+
+    @Override
+    public void waitForAppReady(String label, int legacyMillis) {
+        actions.add("waitForAppReady " + label);
+    }
+
+    @Override
+    public void waitForElementState(String label, int legacyMillis, String selector, WaitForSelectorState state) {
+        actions.add("waitForElementState " + label);
+        waitFor("css", selector, state);
+    }
+
+    @Override
+    public List<Response> performAndWaitForResponses(String action, Runnable trigger) {
+        actions.add("expectResponses " + action);
+        trigger.run();
+        return new ArrayList<>();
+    }
+
+    // ---- Internals ----
+
+    /**
+     * Key of a locator in the fake DOM - css and xpath selectors are used as written
+     */
+    private static String key(String locatorType, String locatorValue) {
+        switch (locatorType.toLowerCase()) {
+            case "css":
+            case "cssselector":
+            case "xpath":
+                return locatorValue;
+            case "id":
+                return "#" + locatorValue;
+            case "name":
+                return "[name='" + locatorValue + "']";
+            default:
+                return locatorType.toLowerCase() + "=" + locatorValue;
+        }
+    }
+
+    private List<FakeElement> find(String locatorType, String locatorValue) {
+        List<FakeElement> matches = dom.get(key(locatorType, locatorValue));
+        return matches == null ? Collections.emptyList() : matches;
+    }
+
+    private FakeElement resolve(String locatorType, String locatorValue, int index) {
+        String key = key(locatorType, locatorValue);
+        List<FakeElement> matches = find(locatorType, locatorValue);
+        if (matches.isEmpty()) {
+            if (!lenient) {
+                throw new RuntimeException("FakeDriver: no element matches " + key);
+            }
+            return element(locatorType, locatorValue);
+        }
+        if (index == ANY_MATCH) {
+            if (matches.size() > 1) {
+                throw new RuntimeException("FakeDriver: strict mode violation - " + key + " matches " + matches.size() + " elements");
+            }
+            return matches.get(0);
+        }
+        if (index >= matches.size()) {
+            throw new RuntimeException("FakeDriver: " + key + " has no match at index " + index);
+        }
+        return matches.get(index);
+    }
+
+    private FakeElement resolveVisible(String locatorType, String locatorValue, int index) {
+        FakeElement element = resolve(locatorType, locatorValue, index);
+        if (!element.visible) {
+            throw new RuntimeException("FakeDriver: element is not visible: " + key(locatorType, locatorValue));
+        }
+        return element;
+    }
+
+    private void log(String action, String locatorType, String detail) {
+        actions.add(action + " " + locatorType + "=" + detail);
+    }
+
+    /**
+     * Seed the ADL fake DOM: one page holding the login, dashboard and contract elements
+     */
+    private static void loadAdl(FakeDriver fake) {
+        String origin = fake.url.replaceAll("^(https?://[^/]+).*$", "$1");
+        fake.setTitle("AUL Corp.");
+
+        // Login
+        fake.element("css", LoginPageObjects.USERNAME_FIELD);
+        fake.element("css", LoginPageObjects.PASSWORD_FIELD);
+        fake.element("css", LoginPageObjects.USERNAME_FIELD_ALT);
+        fake.element("css", LoginPageObjects.PASSWORD_FIELD_ALT);
+        fake.element("css", LoginPageObjects.ERROR_MESSAGE).setVisible(false);
+        fake.element("xpath", LoginPageObjects.PROTECTIVE_LOGIN_TEXT1).setText("Protective");
+        fake.element("xpath", LoginPageObjects.PROTECTIVE_LOGIN_TEXT2).setText("Asset Protection Dealer Portal");
+        fake.element("xpath", LoginPageObjects.PRIVACY_POLICY_TEXT).setText("By signing in, you agree to Protective's Privacy Policy");
+        fake.element("xpath", LoginPageObjects.PRIVACY_POLICY_LINK).setText("Privacy Policy")
+                .onClick(() -> fake.setUrl(origin + "/privacy"));
+        fake.element("css", LoginPageObjects.LOGIN_BUTTON).onClick(() -> {
+            FakeElement error = fake.element("css", LoginPageObjects.ERROR_MESSAGE);
+            if (!fake.valueOf("css", LoginPageObjects.PASSWORD_FIELD).isEmpty()) {
+                error.setVisible(false);
+                fake.setUrl(origin + "/dashboard");
+                return;
+            }
+            String username = fake.valueOf("css", LoginPageObjects.USERNAME_FIELD_ALT);
+            String password = fake.valueOf("css", LoginPageObjects.PASSWORD_FIELD_ALT);
+            if (username.isEmpty() && password.isEmpty()) {
+                error.setText("This field is required");
+            } else if (password.isEmpty()) {
+                error.setText("Password is required");
+            } else {
+                error.setText("Invalid username or password");
+            }
+            error.setVisible(true);
+        });
+
+        // Header and dashboard
+        fake.element("css", LoginPageObjects.PAGE_HEADER).setText("Dashboard");
+        fake.element("xpath", LoginPageObjects.WELCOME_TITLE).setText("Welcome to your Protective ADL Portal!");
+        fake.element("xpath", LoginPageObjects.LOGOUT_MENU_ITEM).setText("Logout")
+                .onClick(() -> fake.setUrl(origin + "/login"));
+        fake.element("xpath", DashboardPageObjects.USER_NAME_DISPLAY).setText("Test Admin");
+        fake.element("xpath", DashboardPageObjects.NOTIFICATION_COUNT).setText("3");
+        fake.element("xpath", DashboardPageObjects.CONTRACT_COUNT_CARD).setText("12");
+        fake.element("xpath", DashboardPageObjects.COPYRIGHT_TEXT).setText("Copyright Protective Life Corporation");
+        fake.element("xpath", DashboardPageObjects.VERSION_INFO).setText("fake-1.0.0");
+        fake.element("xpath", DashboardPageObjects.SEARCH_RESULTS).setVisible(false);
+        fake.element("xpath", DashboardPageObjects.LOADING_SPINNER).setVisible(false);
+        fake.element("xpath", DashboardPageObjects.PROGRESS_BAR).setVisible(false);
+        for (FakeElement card : fake.elements("css", DashboardPageObjects.DASHBOARD_CARDS, 3)) {
+            card.setText("Card");
+        }
+        fake.onKey("Enter", () -> fake.element("xpath", DashboardPageObjects.SEARCH_RESULTS).setVisible(true));
+
+        // Contract creation
+        fake.element("xpath", ContractPageObjects.CREATE_CONTRACT_TITLE).setText("Create Contract");
+        fake.element("xpath", ContractPageObjects.PROGRAM_DROPDOWN).setOptions("Basic Coverage", "Premium Coverage");
+        fake.element("xpath", ContractPageObjects.PROGRAM_TERM).setOptions("24 months", "36 months", "48 months");
+        fake.element("xpath", ContractPageObjects.PROGRAM_DEDUCTIBLE).setOptions("$0", "$100", "$500");
+        fake.element("xpath", ContractPageObjects.QUOTE_TOTAL).setVisible(false);
+        fake.element("xpath", ContractPageObjects.SUCCESS_MESSAGE).setVisible(false);
+        fake.element("xpath", ContractPageObjects.CALCULATE_QUOTE_BUTTON).onClick(() ->
+                fake.element("xpath", ContractPageObjects.QUOTE_TOTAL).setText("$1,382.00").setVisible(true));
+        fake.element("xpath", ContractPageObjects.GENERATE_CONTRACT_BUTTON).onClick(() ->
+                fake.element("xpath", ContractPageObjects.SUCCESS_MESSAGE).setText("Contract CN100001 generated").setVisible(true));
+        fake.element("xpath", ContractPageObjects.SAVE_DRAFT_BUTTON).onClick(() ->
+                fake.element("xpath", ContractPageObjects.SUCCESS_MESSAGE).setText("Draft saved").setVisible(true));
+
+        // Contract search
+        fake.element("xpath", ContractPageObjects.SEARCH_CONTRACT_TITLE).setText("Search Contract");
+        fake.element("xpath", ContractPageObjects.SEARCH_BUTTON).onClick(() ->
+                fake.elements("xpath", ContractPageObjects.SEARCH_RESULTS_ROWS, 1).get(0).setText("CN100001 Test User"));
+        fake.element("xpath", ContractPageObjects.CLEAR_SEARCH_BUTTON).onClick(() ->
+                fake.remove("xpath", ContractPageObjects.SEARCH_RESULTS_ROWS));
+    }
+
+    /**
+     * One element of the fake DOM
+     */
+    public static class FakeElement {
+        private String text = "";
+        private String value = "";
+        private boolean visible = true;
+        private boolean enabled = true;
+        private boolean checked;
+        private final Map<String, String> attributes = new LinkedHashMap<>();
+        private final Map<String, String> css = new HashMap<>();
+        private final List<String> options = new ArrayList<>();
+        private Runnable onClick;
+
+        public FakeElement setText(String text) {
+            this.text = text;
+            return this;
+        }
+
+        public FakeElement setValue(String value) {
+            this.value = value;
+            return this;
+        }
+
+        public FakeElement setVisible(boolean visible) {
+            this.visible = visible;
+            return this;
+        }
+
+        public FakeElement setEnabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        public FakeElement setChecked(boolean checked) {
+            this.checked = checked;
+            return this;
+        }
+
+        public FakeElement setAttribute(String name, String attributeValue) {
+            attributes.put(name, attributeValue);
+            return this;
+        }
+
+        public FakeElement setCss(String property, String cssValue) {
+            css.put(property, cssValue);
+            return this;
+        }
+
+        /**
+         * Make this a select element with the given option labels (the first one selected)
+         */
+        public FakeElement setOptions(String... labels) {
+            options.clear();
+            options.addAll(Arrays.asList(labels));
+            value = labels.length > 0 ? labels[0] : "";
+            return this;
+        }
+
+        public FakeElement onClick(Runnable handler) {
+            this.onClick = handler;
+            return this;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public boolean isVisible() {
+            return visible;
+        }
+
+        public boolean isChecked() {
+            return checked;
+        }
+
+        void select(int index) {
+            if (index < 0 || index >= options.size()) {
+                throw new RuntimeException("FakeDriver: no such option in " + options);
+            }
+            value = options.get(index);
+        }
+
+        Map<String, Object> toSnapshotData(int index) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("text", text);
+            data.put("innerText", visible ? text : "");
+            data.put("attributes", attributes);
+            data.put("visible", visible);
+            data.put("x", 0);
+            data.put("y", index * 20);
+            data.put("width", visible ? 100 : 0);
+            data.put("height", visible ? 20 : 0);
+            return data;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package utils;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.options.HarContentPolicy;
+import com.microsoft.playwright.options.HarMode;
+import com.microsoft.playwright.options.HarNotFound;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * HAR record and replay per test class, selected with har.mode:
+ *
+ * off    - talk to the live backend
+ * record - every context of a test class records a HAR file into har.dir/&lt;TestClass&gt;/
+ * replay - contexts are served from the recorded HAR files with routeFromHAR
+ *
+ * har.match controls what happens to requests that are not in the recording: strict aborts them
+ * so the run never touches the network, lenient lets them through to the live backend.
+ * har.url.filter optionally restricts recording and replay to matching URLs.
+ */
+public class HarArchive {
+
+    private static final ThreadLocal<String> testClass = new ThreadLocal<>();
+    private static final Set<String> clearedClasses = ConcurrentHashMap.newKeySet();
+    private static final ConcurrentHashMap<String, AtomicInteger> sequences = new ConcurrentHashMap<>();
+
+    /**
+     * Bind the test class whose contexts are created on this thread
+     */
+    public static void bind(Class<?> clazz) {
+        testClass.set(clazz.getSimpleName());
+    }
+
+    /**
+     * Add HAR recording to the options of a context about to be created (record mode only)
+     */
+    public static void configure(Browser.NewContextOptions options) {
+        if (!"record".equals(getMode())) {
+            return;
+        }
+
+        Path dir = getClassDir();
+        try {
+            // Start each recording run from an empty directory for the class
+            if (clearedClasses.add(dir.toString()) && Files.exists(dir)) {
+                for (Path har : listHars(dir)) {
+                    Files.delete(har);
+                }
+            }
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to prepare HAR directory " + dir, e);
+        }
+
+        int sequence = sequences.computeIfAbsent(dir.toString(), k -> new AtomicInteger()).incrementAndGet();
+        options.setRecordHarPath(dir.resolve(String.format("context-%03d.har", sequence)))
+                .setRecordHarMode(HarMode.FULL)
+                .setRecordHarContent(HarContentPolicy.EMBED);
+
+        String filter = getProperty("har.url.filter", "");
+        if (!filter.isEmpty()) {
+            options.setRecordHarUrlFilter(Pattern.compile(filter));
+        }
+    }
+
+    /**
+     * Serve a new context from the recorded HAR files (replay mode only)
+     */
+    public static void apply(BrowserContext context) {
+        if (!"replay".equals(getMode())) {
+            return;
+        }
+
+        Path dir = getClassDir();
+        boolean strict = !"lenient".equalsIgnoreCase(getProperty("har.match", "strict"));
+        List<Path> hars = listHars(dir);
+        if (hars.isEmpty()) {
+            System.out.println("No HAR recordings in " + dir + (strict ? " - all requests will be aborted" : " - using the live backend"));
+        }
+
+        // Routes run last-registered first, so this catch-all only sees requests no HAR matched
+        if (strict) {
+            context.route("**/*", route -> {
+                System.out.println("HAR replay: no recording for " + route.request().method() + " " + route.request().url());
+                route.abort();
+            });
+        }
+
+        String filter = getProperty("har.url.filter", "");
+        for (Path har : hars) {
+            BrowserContext.RouteFromHAROptions options = new BrowserContext.RouteFromHAROptions()
+                    .setNotFound(HarNotFound.FALLBACK);
+            if (!filter.isEmpty()) {
+                options.setUrl(Pattern.compile(filter));
+            }
+            context.routeFromHAR(har, options);
+        }
+    }
+
+    private static String getMode() {
+        return getProperty("har.mode", "off").trim().toLowerCase();
+    }
+
+    private static Path getClassDir() {
+        String name = testClass.get() == null ? "default" : testClass.get();
+        return Paths.get(getProperty("har.dir", "src/test/resources/har")).resolve(name);
+    }
+
+    private static List<Path> listHars(Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return Collections.emptyList();
+        }
+        List<Path> hars = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*.har")) {
+            stream.forEach(hars::add);
+        } catch (IOException e) {
+            System.out.println("Failed to list HAR files in " + dir + ": " + e.getMessage());
+        }
+        Collections.sort(hars);
+        return hars;
+    }
+
+    private static String getProperty(String key, String defaultValue) {
+        return BaseClass.prop == null ? defaultValue : BaseClass.prop.getProperty(key, defaultValue);
+    }
+}
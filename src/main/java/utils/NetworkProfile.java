@@ -0,0 +1,347 @@
+package utils;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Request;
+import com.microsoft.playwright.Response;
+import com.microsoft.playwright.Route;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Routing profiles that block or stub requests which do not matter for functional assertions.
+ *
+ * The active profile is selected with network.profile (none disables routing) and is defined by
+ * network.profile.&lt;name&gt;.block.types / block.urls / stub.types / stub.urls. Types are Playwright
+ * resource types (image, font, media, script, stylesheet, ...), urls are ';'-separated regexes.
+ * Blocked requests are aborted; stubbed requests are fulfilled locally with an empty body of the
+ * right kind (a 1x1 transparent GIF for images, so img elements keep a box and stay visible).
+ *
+ * Only requests that can match the profile are routed through Java: one route per configured url
+ * regex (evaluated by the browser driver, so they must also be valid JavaScript regexes - a leading
+ * (?i) is supported) and one for the file extensions of the configured types. The resource type is
+ * checked again in the handler; types without known extensions (xhr, fetch, document) are ignored.
+ *
+ * Avoided requests are counted per test. Bytes avoided are only an estimate from a size index of
+ * assets downloaded without the profile, kept in test-results/network/resource-sizes.properties;
+ * blocked assets are never downloaded, so the index is filled by a profiling run with
+ * network.profile=none and reported as unknown until then.
+ */
+public class NetworkProfile {
+
+    private static final Path SIZE_INDEX = Paths.get("test-results/network/resource-sizes.properties");
+    private static final Set<String> ASSET_TYPES = new HashSet<>(Arrays.asList("image", "font", "media", "script", "stylesheet"));
+    private static final Map<String, String> TYPE_EXTENSIONS = new HashMap<>();
+    private static final byte[] TRANSPARENT_GIF = Base64.getDecoder().decode("R0lGODlhAQABAIAAAAAAAP///yH5BAEAAAAALAAAAAABAAEAAAIBRAA7");
+
+    private static final Map<String, Long> sizes = new ConcurrentHashMap<>();
+    private static final Set<Request> fulfilled = ConcurrentHashMap.newKeySet();
+    private static final ThreadLocal<RouteStats> testStats = ThreadLocal.withInitial(RouteStats::new);
+    private static final RouteStats suiteStats = new RouteStats();
+    private static volatile boolean sizesLoaded;
+
+    static {
+        TYPE_EXTENSIONS.put("image", "png|jpe?g|gif|svg|webp|avif|ico|bmp");
+        TYPE_EXTENSIONS.put("font", "woff2?|ttf|otf|eot");
+        TYPE_EXTENSIONS.put("media", "mp4|webm|ogg|mp3|wav|m4a|mov");
+        TYPE_EXTENSIONS.put("script", "m?js");
+        TYPE_EXTENSIONS.put("stylesheet", "css");
+    }
+
+    private final String name;
+    private final Set<String> blockTypes;
+    private final List<Pattern> blockUrls;
+    private final Set<String> stubTypes;
+    private final List<Pattern> stubUrls;
+
+    private NetworkProfile(String name, Properties prop) {
+        String prefix = "network.profile." + name + ".";
+        this.name = name;
+        this.blockTypes = parseTypes(prop.getProperty(prefix + "block.types", ""));
+        this.blockUrls = parsePatterns(prop.getProperty(prefix + "block.urls", ""));
+        this.stubTypes = parseTypes(prop.getProperty(prefix + "stub.types", ""));
+        this.stubUrls = parsePatterns(prop.getProperty(prefix + "stub.urls", ""));
+    }
+
+    /**
+     * Install the configured routing profile on a new context
+     */
+    public static void apply(BrowserContext context) {
+        loadSizes();
+        context.onResponse(NetworkProfile::recordSize);
+
+        String name = BaseClass.prop == null ? "none" : BaseClass.prop.getProperty("network.profile", "none").trim();
+        if (name.isEmpty() || "none".equalsIgnoreCase(name)) {
+            return;
+        }
+
+        NetworkProfile profile = new NetworkProfile(name, BaseClass.prop);
+        for (Pattern pattern : profile.routePatterns()) {
+            context.route(pattern, profile::handle);
+        }
+    }
+
+    /**
+     * Start counting avoided requests for a new test on this thread
+     */
+    public static void beginTest() {
+        testStats.get().reset();
+    }
+
+    /**
+     * Report the requests avoided during a test (and the bytes, when estimated) in the log and the TestNG report
+     */
+    public static void endTest(ITestResult result) {
+        RouteStats stats = testStats.get();
+        if (stats.requests.sum() == 0) {
+            return;
+        }
+
+        String summary = "Network profile avoided " + stats.describe() + " in " + TestListener.getTestName(result);
+        System.out.println(summary);
+        result.setAttribute("network.avoided.requests", stats.requests.sum());
+        if (stats.sized.sum() > 0) {
+            result.setAttribute("network.avoided.bytes.estimate", stats.bytes.sum());
+        }
+        Reporter.setCurrentTestResult(result);
+        Reporter.log(summary);
+    }
+
+    /**
+     * Print the suite totals and persist the asset size index
+     */
+    public static void printReport() {
+        if (suiteStats.requests.sum() > 0) {
+            System.out.println("========== Network profile report ==========");
+            System.out.println("Avoided " + suiteStats.describe());
+            System.out.println("=============================================");
+        }
+        saveSizes();
+    }
+
+    /**
+     * Runs on the thread driving the context (Playwright dispatches events during its calls), so
+     * the request counts towards the test that thread is running
+     */
+    private void handle(Route route) {
+        RouteStats stats = testStats.get();
+        Request request = route.request();
+        String type = request.resourceType();
+        String url = request.url();
+
+        if (blockTypes.contains(type) || matchesAny(blockUrls, url)) {
+            count(stats, url);
+            route.abort("blockedbyclient");
+        } else if (stubTypes.contains(type) || matchesAny(stubUrls, url)) {
+            count(stats, url);
+            fulfilled.add(request);
+            stub(route, type);
+        } else {
+            // Let later routes (e.g. HAR replay) or the network handle it
+            route.fallback();
+        }
+    }
+
+    /**
+     * Driver-side patterns covering every request the profile can block or stub
+     */
+    private List<Pattern> routePatterns() {
+        List<Pattern> patterns = new ArrayList<>();
+        for (Pattern url : blockUrls) {
+            patterns.add(toRoutePattern(url.pattern()));
+        }
+        for (Pattern url : stubUrls) {
+            patterns.add(toRoutePattern(url.pattern()));
+        }
+
+        Set<String> types = new HashSet<>(blockTypes);
+        types.addAll(stubTypes);
+        List<String> extensions = new ArrayList<>();
+        for (String type : types) {
+            if (TYPE_EXTENSIONS.containsKey(type)) {
+                extensions.add(TYPE_EXTENSIONS.get(type));
+            } else {
+                System.out.println("Network profile " + name + ": resource type '" + type
+                        + "' has no known file extensions and is not routed");
+            }
+        }
+        if (!extensions.isEmpty()) {
+            patterns.add(Pattern.compile("\\.(" + String.join("|", extensions) + ")([?#]|$)", Pattern.CASE_INSENSITIVE));
+        }
+        return patterns;
+    }
+
+    /**
+     * The driver evaluates route patterns as JavaScript regexes, which have no inline flags
+     */
+    private static Pattern toRoutePattern(String regex) {
+        if (regex.startsWith("(?i)")) {
+            return Pattern.compile(regex.substring(4), Pattern.CASE_INSENSITIVE);
+        }
+        return Pattern.compile(regex);
+    }
+
+    private static void stub(Route route, String type) {
+        Route.FulfillOptions options = new Route.FulfillOptions().setStatus(200);
+        switch (type) {
+            case "image":
+                options.setContentType("image/gif").setBodyBytes(TRANSPARENT_GIF);
+                break;
+            case "script":
+                options.setContentType("application/javascript").setBody("");
+                break;
+            case "stylesheet":
+                options.setContentType("text/css").setBody("");
+                break;
+            default:
+                options.setBody("");
+        }
+        route.fulfill(options);
+    }
+
+    private static void count(RouteStats stats, String url) {
+        Long size = sizes.get(stripQuery(url));
+        for (RouteStats target : new RouteStats[] {stats, suiteStats}) {
+            target.requests.increment();
+            if (size != null) {
+                target.bytes.add(size);
+                target.sized.increment();
+            }
+        }
+    }
+
+    private static void recordSize(Response response) {
+        // Stubbed responses carry the stub's size, not the asset's
+        if (fulfilled.remove(response.request())) {
+            return;
+        }
+        if (!ASSET_TYPES.contains(response.request().resourceType()) || response.status() != 200) {
+            return;
+        }
+        String length = response.headers().get("content-length");
+        if (length != null) {
+            try {
+                sizes.put(stripQuery(response.url()), Long.parseLong(length.trim()));
+            } catch (NumberFormatException e) {
+                // Ignore malformed header
+            }
+        }
+    }
+
+    private static synchronized void loadSizes() {
+        if (sizesLoaded) {
+            return;
+        }
+        sizesLoaded = true;
+        if (!Files.exists(SIZE_INDEX)) {
+            return;
+        }
+        Properties index = new Properties();
+        try (InputStream in = Files.newInputStream(SIZE_INDEX)) {
+            index.load(in);
+            for (String url : index.stringPropertyNames()) {
+                sizes.put(url, Long.parseLong(index.getProperty(url)));
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.out.println("Failed to load resource size index: " + e.getMessage());
+        }
+    }
+
+    private static synchronized void saveSizes() {
+        if (sizes.isEmpty()) {
+            return;
+        }
+        Properties index = new Properties();
+        sizes.forEach((url, size) -> index.setProperty(url, String.valueOf(size)));
+        try {
+            Files.createDirectories(SIZE_INDEX.getParent());
+            try (OutputStream out = Files.newOutputStream(SIZE_INDEX)) {
+                index.store(out, "Asset sizes used to estimate bytes avoided by network profiles");
+            }
+        } catch (IOException e) {
+            System.out.println("Failed to save resource size index: " + e.getMessage());
+        }
+    }
+
+    private static boolean matchesAny(List<Pattern> patterns, String url) {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(url).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripQuery(String url) {
+        int query = url.indexOf('?');
+        return query < 0 ? url : url.substring(0, query);
+    }
+
+    private static Set<String> parseTypes(String value) {
+        Set<String> types = new HashSet<>();
+        for (String type : value.split(",")) {
+            if (!type.trim().isEmpty()) {
+                types.add(type.trim().toLowerCase());
+            }
+        }
+        return types;
+    }
+
+    private static List<Pattern> parsePatterns(String value) {
+        if (value.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(value.split(";"))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .map(Pattern::compile)
+                .collect(java.util.stream.Collectors.toList());
+    }
+
+    @Override
+    public String toString() {
+        return "NetworkProfile[" + name + "]";
+    }
+
+    /**
+     * Requests avoided and the estimated size of those whose asset size is known
+     */
+    private static class RouteStats {
+        final LongAdder requests = new LongAdder();
+        final LongAdder sized = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+
+        void reset() {
+            requests.reset();
+            sized.reset();
+            bytes.reset();
+        }
+
+        String describe() {
+            if (sized.sum() == 0) {
+                return requests.sum() + " request(s) (bytes unknown: run once with network.profile=none to record asset sizes)";
+            }
+            return requests.sum() + " request(s), an estimated ~" + (bytes.sum() / 1024) + " KB"
+                    + " (sizes known for " + sized.sum() + " of " + requests.sum() + ")";
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package utils;
+
+import com.microsoft.playwright.Locator;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Response;
+import com.microsoft.playwright.options.AriaRole;
+import com.microsoft.playwright.options.LoadState;
+import com.microsoft.playwright.options.MouseButton;
+import com.microsoft.playwright.options.SelectOption;
+import com.microsoft.playwright.options.WaitForSelectorState;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * UiDriver backed by the Playwright page bound to the current thread (BaseClass.getPage()),
+ * so it follows context switches made during a test
+ */
+public class PlaywrightDriver implements UiDriver {
+
+    private static final String SNAPSHOT_SCRIPT =
+        "els => els.map(e => {"
+        + "  const rect = e.getBoundingClientRect();"
+        + "  const style = window.getComputedStyle(e);"
+        + "  const attributes = {};"
+        + "  for (const a of e.attributes) attributes[a.name] = a.value;"
+        + "  return { text: e.textContent, innerText: e.innerText === undefined ? null : e.innerText, attributes,"
+        + "           visible: rect.width > 0 && rect.height > 0 && style.visibility !== 'hidden',"
+        + "           x: rect.x, y: rect.y, width: rect.width, height: rect.height };"
+        + "})";
+
+    private static final String FILL_FORM_SCRIPT =
+        "entries => entries.map(({ selector, value }) => {"
+        + "  const el = selector.startsWith('/') || selector.startsWith('(')"
+        + "    ? document.evaluate(selector, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue"
+        + "    : document.querySelector(selector);"
+        + "  if (!el) return { selector, status: 'missing' };"
+        + "  if (el.disabled || el.readOnly) return { selector, status: 'readonly' };"
+        + "  const proto = el instanceof HTMLTextAreaElement ? HTMLTextAreaElement.prototype"
+        + "    : el instanceof HTMLSelectElement ? HTMLSelectElement.prototype : HTMLInputElement.prototype;"
+        + "  el.focus();"
+        + "  Object.getOwnPropertyDescriptor(proto, 'value').set.call(el, value);"
+        + "  el.dispatchEvent(new Event('input', { bubbles: true }));"
+        + "  el.dispatchEvent(new Event('change', { bubbles: true }));"
+        + "  el.blur();"
+        + "  const rejected = el.value !== value || (el.validity && !el.validity.valid) || el.classList.contains('ng-invalid');"
+        + "  return { selector, status: rejected ? 'invalid' : 'ok' };"
+        + "})";
+
+    /**
+     * Resolve a locator on the current page
+     */
+    public Locator locate(String locatorType, String locatorValue) {
+        Page page = page();
+        switch (locatorType.toLowerCase()) {
+            case "id":
+                return page.locator("#" + locatorValue);
+            case "name":
+                return page.locator("[name='" + locatorValue + "']");
+            case "xpath":
+                return page.locator(locatorValue);
+            case "css":
+            case "cssselector":
+                return page.locator(locatorValue);
+            case "text":
+                return page.getByText(locatorValue);
+            case "placeholder":
+                return page.getByPlaceholder(locatorValue);
+            case "role":
+                return page.getByRole(AriaRole.valueOf(locatorValue.toUpperCase()));
+            case "testid":
+                return page.getByTestId(locatorValue);
+            default:
+                throw new IllegalArgumentException("Unsupported locator type: " + locatorType);
+        }
+    }
+
+    private Locator locate(String locatorType, String locatorValue, int index) {
+        Locator locator = locate(locatorType, locatorValue);
+        return index == ANY_MATCH ? locator : locator.nth(index);
+    }
+
+    private static Page page() {
+        Page page = BaseClass.getPage();
+        if (page == null) {
+            throw new IllegalStateException("No Playwright page is open on this thread");
+        }
+        return page;
+    }
+
+    @Override
+    public void click(String locatorType, String locatorValue, int index) {
+        Locator element = locate(locatorType, locatorValue, index);
+        element.waitFor();
+        element.click();
+    }
+
+    @Override
+    public void fill(String locatorType, String locatorValue, int index, String text) {
+        Locator element = locate(locatorType, locatorValue, index);
+        element.waitFor();
+        element.fill(text);
+    }
+
+    @Override
+    public void clear(String locatorType, String locatorValue, int index) {
+        Locator element = locate(locatorType, locatorValue, index);
+        element.waitFor();
+        element.clear();
+    }
+
+    @Override
+    public String getText(String locatorType, String locatorValue, int index) {
+        Locator element = locate(locatorType, locatorValue, index);
+        element.waitFor();
+        return element.textContent();
+    }
+
+    @Override
+    public String getAttribute(String locatorType, String locatorValue, String attributeName) {
+        Locator element = locate(locatorType, locatorValue);
+        element.waitFor();
+        return element.getAttribute(attributeName);
+    }
+
+    @Override
+    public String getCssValue(String locatorType, String locatorValue, String property) {
+        return (String) locate(locatorType, locatorValue).evaluate("el => getComputedStyle(el)." + property);
+    }
+
+    @Override
+    public boolean isVisible(String locatorType, String locatorValue) {
+        try {
+            return locate(locatorType, locatorValue).isVisible();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean isEnabled(String locatorType, String locatorValue) {
+        try {
+            return locate(locatorType, locatorValue).isEnabled();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean isChecked(String locatorType, String locatorValue) {
+        return locate(locatorType, locatorValue).isChecked();
+    }
+
+    @Override
+    public void setChecked(String locatorType, String locatorValue, boolean checked) {
+        Locator checkbox = locate(locatorType, locatorValue);
+        if (checkbox.isChecked() != checked) {
+            if (checked) {
+                checkbox.check();
+            } else {
+                checkbox.uncheck();
+            }
+        }
+    }
+
+    @Override
+    public void waitFor(String locatorType, String locatorValue, WaitForSelectorState state) {
+        locate(locatorType, locatorValue).waitFor(new Locator.WaitForOptions().setState(state));
+    }
+
+    @Override
+    public int count(String locatorType, String locatorValue) {
+        return locate(locatorType, locatorValue).count();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ElementSnapshot> queryAll(String locatorType, String locatorValue) {
+        List<Map<String, Object>> results = (List<Map<String, Object>>) locate(locatorType, locatorValue)
+                .evaluateAll(SNAPSHOT_SCRIPT);
+        List<ElementSnapshot> snapshots = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            snapshots.add(new ElementSnapshot(i, results.get(i)));
+        }
+        return snapshots;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<String> fillForm(Map<String, String> fields) {
+        List<Map<String, String>> entries = new ArrayList<>();
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            Map<String, String> entry = new HashMap<>();
+            entry.put("selector", field.getKey());
+            entry.put("value", field.getValue());
+            entries.add(entry);
+        }
+
+        List<String> rejected = new ArrayList<>();
+        for (Map<String, Object> result : (List<Map<String, Object>>) page().evaluate(FILL_FORM_SCRIPT, entries)) {
+            if (!"ok".equals(result.get("status"))) {
+                System.out.println("fillForm: " + result.get("selector") + " was " + result.get("status"));
+                rejected.add((String) result.get("selector"));
+            }
+        }
+        return rejected;
+    }
+
+    @Override
+    public void selectOption(String locatorType, String locatorValue, String valueOrLabel) {
+        locate(locatorType, locatorValue).selectOption(valueOrLabel);
+    }
+
+    @Override
+    public void selectOption(String locatorType, String locatorValue, SelectOption option) {
+        locate(locatorType, locatorValue).selectOption(option);
+    }
+
+    @Override
+    public void hover(String locatorType, String locatorValue) {
+        locate(locatorType, locatorValue).hover();
+    }
+
+    @Override
+    public void doubleClick(String locatorType, String locatorValue) {
+        locate(locatorType, locatorValue).dblclick();
+    }
+
+    @Override
+    public void rightClick(String locatorType, String locatorValue) {
+        locate(locatorType, locatorValue).click(new Locator.ClickOptions().setButton(MouseButton.RIGHT));
+    }
+
+    @Override
+    public void scrollIntoView(String locatorType, String locatorValue) {
+        locate(locatorType, locatorValue).scrollIntoViewIfNeeded();
+    }
+
+    @Override
+    public void uploadFile(String locatorType, String locatorValue, Path file) {
+        locate(locatorType, locatorValue).setInputFiles(file);
+    }
+
+    @Override
+    public void pressKey(String key) {
+        page().keyboard().press(key);
+    }
+
+    @Override
+    public void typeKeys(String text) {
+        page().keyboard().type(text);
+    }
+
+    @Override
+    public void scrollBy(int x, int y) {
+        page().evaluate("window.scrollBy(" + x + ", " + y + ")");
+    }
+
+    @Override
+    public Object evaluate(String script) {
+        return page().evaluate(script);
+    }
+
+    @Override
+    public void navigate(String url) {
+        Page page = page();
+        page.navigate(url);
+        SyncUtils.settle(page);
+    }
+
+    @Override
+    public String getUrl() {
+        return page().url();
+    }
+
+    @Override
+    public String getTitle() {
+        return page().title();
+    }
+
+    @Override
+    public void reload() {
+        page().reload();
+    }
+
+    @Override
+    public void goBack() {
+        page().goBack();
+    }
+
+    @Override
+    public void goForward() {
+        page().goForward();
+    }
+
+    @Override
+    public void waitForLoad() {
+        Page page = page();
+        page.waitForLoadState(LoadState.LOAD);
+        SyncUtils.settle(page);
+    }
+
+    @Override
+    public void waitForAppReady(String label, int legacyMillis) {
+        SyncUtils.waitForAppReady(page(), label, legacyMillis);
+    }
+
+    @Override
+    public void waitForElementState(String label, int legacyMillis, String selector, WaitForSelectorState state) {
+        SyncUtils.waitForElementState(page(), label, legacyMillis, selector, state);
+    }
+
+    /**
+     * Fails with the expected endpoints and the responses that did arrive when they do not all arrive
+     * within endpoint.wait.timeout. An action without registered endpoints fails before running
+     * unless endpoint.settle.fallback=true, which waits for the page to settle instead.
+     */
+    @Override
+    public List<Response> performAndWaitForResponses(String action, Runnable trigger) {
+        Page page = page();
+        List<EndpointRegistry.Endpoint> endpoints = EndpointRegistry.getEndpoints(action);
+        if (endpoints.isEmpty()) {
+            if (!EndpointRegistry.isSettleFallbackEnabled()) {
+                throw new RuntimeException("No backend endpoints registered for action '" + action + "' - add endpoint."
+                        + action + " to config.properties, or set endpoint.settle.fallback=true to wait for the page to settle");
+            }
+            trigger.run();
+            waitForLoad();
+            return new ArrayList<>();
+        }
+
+        double timeout = Double.parseDouble(BaseClass.prop.getProperty("endpoint.wait.timeout", "10000"));
+        List<String> observed = new ArrayList<>();
+        Consumer<Response> observer = response ->
+                observed.add(response.status() + " " + response.request().method() + " " + response.url());
+        List<Response> responses = new ArrayList<>();
+
+        page.onResponse(observer);
+        try {
+            waitForEndpoints(page, endpoints, 0, trigger, timeout, responses);
+        } catch (com.microsoft.playwright.TimeoutError e) {
+            throw new RuntimeException("Action '" + action + "' did not receive the expected backend response within "
+                    + (long) timeout + "ms. Expected: " + endpoints + ". Page: " + page.url()
+                    + ". Responses received meanwhile: " + (observed.isEmpty() ? "none" : observed), e);
+        } finally {
+            page.offResponse(observer);
+        }
+
+        for (Response response : responses) {
+            if (response.status() >= 400) {
+                System.out.println("Action '" + action + "' received " + response.status() + " from " + response.url());
+            }
+        }
+        return responses;
+    }
+
+    private void waitForEndpoints(Page page, List<EndpointRegistry.Endpoint> endpoints, int index,
+                                  Runnable trigger, double timeout, List<Response> responses) {
+        if (index == endpoints.size()) {
+            trigger.run();
+            return;
+        }
+        EndpointRegistry.Endpoint endpoint = endpoints.get(index);
+        responses.add(page.waitForResponse(endpoint::matches, new Page.WaitForResponseOptions().setTimeout(timeout),
+                () -> waitForEndpoints(page, endpoints, index + 1, trigger, timeout, responses)));
+    }
+}
@@ -2,53 +2,36 @@ package utils;
 
 import com.microsoft.playwright.Locator;
 import com.microsoft.playwright.Page;
-import com.microsoft.playwright.ElementHandle;
+import com.microsoft.playwright.Response;
+import com.microsoft.playwright.options.SelectOption;
+import com.microsoft.playwright.options.WaitForSelectorState;
 import org.testng.Assert;
 
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Map;
 
 public class PlaywrightUtils extends BaseClass {
     
+    private static final PlaywrightDriver playwrightDriver = new PlaywrightDriver();
+    
     /**
-     * Find element by different locator strategies
+     * Find element by different locator strategies. Escape hatch for Playwright-only features;
+     * the actions below go through getDriver() and also run against the FakeDriver.
      */
     public Locator getElement(String locatorType, String locatorValue) {
-        Page page = getPage();
-        
-        if (page == null) {
-            // Test mode - return mock locator
-            return null;
-        }
-        
-        switch (locatorType.toLowerCase()) {
-            case "id":
-                return page.locator("#" + locatorValue);
-            case "name":
-                return page.locator("[name='" + locatorValue + "']");
-            case "xpath":
-                return page.locator(locatorValue);
-            case "css":
-            case "cssselector":
-                return page.locator(locatorValue);
-            case "text":
-                return page.getByText(locatorValue);
-            case "placeholder":
-                return page.getByPlaceholder(locatorValue);
-            case "role":
-                return page.getByRole(com.microsoft.playwright.options.AriaRole.valueOf(locatorValue.toUpperCase()));
-            case "testid":
-                return page.getByTestId(locatorValue);
-            default:
-                throw new IllegalArgumentException("Unsupported locator type: " + locatorType);
+        if (getPage() == null) {
+            throw new IllegalStateException("No Playwright locator for " + locatorType + "=" + locatorValue
+                    + " in test mode; use queryAll() or getElementCount(), which also run against the FakeDriver");
         }
+        return playwrightDriver.locate(locatorType, locatorValue);
     }
     
     /**
-     * Find multiple elements
+     * Find multiple elements. Needs a Playwright page like getElement(); prefer queryAll().
      */
     public List<Locator> getElements(String locatorType, String locatorValue) {
-        Page page = getPage();
         Locator locator = getElement(locatorType, locatorValue);
         
         List<Locator> elements = new ArrayList<>();
@@ -65,288 +48,279 @@ public class PlaywrightUtils extends BaseClass {
      * Click on element
      */
     public void clickElement(String locatorType, String locatorValue) {
-        Locator element = getElement(locatorType, locatorValue);
-        if (element == null) {
-            System.out.println("Test mode: clickElement " + locatorType + "=" + locatorValue);
-            return;
-        }
-        element.waitFor();
-        element.click();
+        ActionMetrics.time("clickElement", locatorValue, () -> getDriver().click(locatorType, locatorValue, UiDriver.ANY_MATCH));
     }
     
     /**
      * Click on element by index (for multiple same locators)
      */
     public void clickElement(String locatorType, String locatorValue, int index) {
-        Locator element = getElement(locatorType, locatorValue).nth(index);
-        element.waitFor();
-        element.click();
+        ActionMetrics.time("clickElement", locatorValue, () -> getDriver().click(locatorType, locatorValue, index));
     }
     
     /**
      * Type text in input field
      */
     public void typeText(String locatorType, String locatorValue, String text) {
-        Locator element = getElement(locatorType, locatorValue);
-        if (element == null) {
-            System.out.println("Test mode: typeText " + locatorType + "=" + locatorValue + " text=" + text);
-            return;
-        }
-        element.waitFor();
-        element.fill(text);
+        ActionMetrics.time("typeText", locatorValue, () -> getDriver().fill(locatorType, locatorValue, UiDriver.ANY_MATCH, text));
     }
     
     /**
      * Type text in input field by index
      */
     public void typeText(String locatorType, String locatorValue, String text, int index) {
-        Locator element = getElement(locatorType, locatorValue).nth(index);
-        element.waitFor();
-        element.fill(text);
+        ActionMetrics.time("typeText", locatorValue, () -> getDriver().fill(locatorType, locatorValue, index, text));
+    }
+    
+    /**
+     * Fill several fields in one round-trip. Keys are CSS or XPath selectors (e.g. the
+     * ContractPageObjects constants) in fill order. Values are set through the native value
+     * setter followed by input/change/blur events so Angular forms pick them up. Fields that are
+     * missing, read-only or rejected by validation/input masks are filled one by one afterwards.
+     * Returns the number of driver round-trips saved compared with per-field fills.
+     */
+    public int fillForm(Map<String, String> fields) {
+        List<String> rejected = ActionMetrics.time("fillForm", fields.size() + " fields", () -> getDriver().fillForm(fields));
+        
+        for (String selector : rejected) {
+            System.out.println("fillForm: filling " + selector + " individually");
+            typeText(isXPath(selector) ? "xpath" : "css", selector, fields.get(selector));
+        }
+        
+        // Per-field fills cost a waitFor() and a fill() each
+        int saved = 2 * fields.size() - (1 + 2 * rejected.size());
+        System.out.println("fillForm: " + fields.size() + " fields, " + rejected.size() + " fallback(s), "
+                + saved + " round-trip(s) saved");
+        return saved;
+    }
+    
+    private static boolean isXPath(String selector) {
+        return selector.startsWith("/") || selector.startsWith("(");
     }
     
     /**
      * Clear text field
      */
     public void clearField(String locatorType, String locatorValue) {
-        Locator element = getElement(locatorType, locatorValue);
-        element.waitFor();
-        element.clear();
+        ActionMetrics.time("clearField", locatorValue, () -> getDriver().clear(locatorType, locatorValue, UiDriver.ANY_MATCH));
     }
     
     /**
      * Clear text field by index
      */
     public void clearField(String locatorType, String locatorValue, int index) {
-        Locator element = getElement(locatorType, locatorValue).nth(index);
-        element.waitFor();
-        element.clear();
+        ActionMetrics.time("clearField", locatorValue, () -> getDriver().clear(locatorType, locatorValue, index));
     }
     
     /**
      * Get text from element
      */
     public String getText(String locatorType, String locatorValue) {
-        Locator element = getElement(locatorType, locatorValue);
-        if (element == null) {
-            System.out.println("Test mode: getText " + locatorType + "=" + locatorValue);
-            // Return appropriate text based on locator for test assertions
-            if (locatorValue.contains("Privacy") || locatorValue.contains("privacy") || locatorValue.contains("you agree to Protective")) {
-                return "you agree to our Privacy Policy";
-            } else if (locatorValue.contains("Dashboard") || locatorValue.contains("title")) {
-                return "Dashboard";
-            } else if (locatorValue.contains("Protective")) {
-                return "Protective text content";
-            } else {
-                return "Test Mode Text";
-            }
-        }
-        element.waitFor();
-        return element.textContent();
+        return ActionMetrics.time("getText", locatorValue, () -> getDriver().getText(locatorType, locatorValue, UiDriver.ANY_MATCH));
     }
     
     /**
      * Get text from element by index
      */
     public String getText(String locatorType, String locatorValue, int index) {
-        Locator element = getElement(locatorType, locatorValue).nth(index);
-        element.waitFor();
-        return element.textContent();
+        return ActionMetrics.time("getText", locatorValue, () -> getDriver().getText(locatorType, locatorValue, index));
     }
     
     /**
      * Get attribute value
      */
     public String getAttribute(String locatorType, String locatorValue, String attributeName) {
-        Locator element = getElement(locatorType, locatorValue);
-        element.waitFor();
-        return element.getAttribute(attributeName);
+        return ActionMetrics.time("getAttribute", locatorValue, () -> getDriver().getAttribute(locatorType, locatorValue, attributeName));
     }
     
     /**
      * Check if element is visible
      */
     public boolean isElementVisible(String locatorType, String locatorValue) {
-        try {
-            Locator element = getElement(locatorType, locatorValue);
-            if (element == null) {
-                System.out.println("Test mode: isElementVisible " + locatorType + "=" + locatorValue);
-                return true; // Assume visible in test mode
-            }
-            return element.isVisible();
-        } catch (Exception e) {
-            return false;
-        }
+        return ActionMetrics.time("isElementVisible", locatorValue, () -> getDriver().isVisible(locatorType, locatorValue));
     }
     
     /**
      * Check if element is enabled
      */
     public boolean isElementEnabled(String locatorType, String locatorValue) {
-        try {
-            Locator element = getElement(locatorType, locatorValue);
-            return element.isEnabled();
-        } catch (Exception e) {
-            return false;
-        }
+        return ActionMetrics.time("isElementEnabled", locatorValue, () -> getDriver().isEnabled(locatorType, locatorValue));
     }
     
     /**
      * Wait for element to be visible
      */
     public void waitForElementVisible(String locatorType, String locatorValue) {
-        Locator element = getElement(locatorType, locatorValue);
-        if (element == null) {
-            System.out.println("Test mode: waitForElementVisible " + locatorType + "=" + locatorValue);
-            return;
-        }
-        element.waitFor();
+        ActionMetrics.time("waitForElementVisible", locatorValue, () -> getDriver().waitFor(locatorType, locatorValue, WaitForSelectorState.VISIBLE));
     }
     
     /**
      * Wait for element to be hidden
      */
     public void waitForElementHidden(String locatorType, String locatorValue) {
-        Locator element = getElement(locatorType, locatorValue);
-        if (element == null) {
-            System.out.println("Test mode: waitForElementHidden " + locatorType + "=" + locatorValue);
-            return;
-        }
-        element.waitFor(new Locator.WaitForOptions().setState(com.microsoft.playwright.options.WaitForSelectorState.HIDDEN));
+        ActionMetrics.time("waitForElementHidden", locatorValue, () -> getDriver().waitFor(locatorType, locatorValue, WaitForSelectorState.HIDDEN));
     }
     
     /**
      * Scroll to element
      */
     public void scrollToElement(String locatorType, String locatorValue) {
-        Locator element = getElement(locatorType, locatorValue);
-        element.scrollIntoViewIfNeeded();
+        getDriver().scrollIntoView(locatorType, locatorValue);
     }
     
     /**
      * Scroll page down
      */
     public void scrollDown() {
-        getPage().keyboard().press("PageDown");
+        getDriver().pressKey("PageDown");
     }
     
     /**
      * Scroll page up
      */
     public void scrollUp() {
-        getPage().keyboard().press("PageUp");
+        getDriver().pressKey("PageUp");
     }
     
     /**
      * Scroll to bottom of page
      */
     public void scrollToBottom() {
-        getPage().keyboard().press("End");
+        getDriver().pressKey("End");
     }
     
     /**
      * Scroll to top of page
      */
     public void scrollToTop() {
-        getPage().keyboard().press("Home");
+        getDriver().pressKey("Home");
     }
     
     /**
      * Scroll by pixels
      */
     public void scrollByPixels(int x, int y) {
-        Page page = getPage();
-        if (page == null) {
-            System.out.println("Test mode: scrollByPixels " + x + "," + y);
-            return;
-        }
-        page.evaluate("window.scrollBy(" + x + ", " + y + ")");
+        getDriver().scrollBy(x, y);
     }
     
     /**
      * Select dropdown option by visible text
      */
     public void selectDropdownByText(String locatorType, String locatorValue, String optionText) {
-        Locator select = getElement(locatorType, locatorValue);
-        select.selectOption(optionText);
+        ActionMetrics.time("selectDropdown", locatorValue, () -> getDriver().selectOption(locatorType, locatorValue, optionText));
     }
     
     /**
      * Select dropdown option by value
      */
     public void selectDropdownByValue(String locatorType, String locatorValue, String optionValue) {
-        Locator select = getElement(locatorType, locatorValue);
-        select.selectOption(new com.microsoft.playwright.options.SelectOption().setValue(optionValue));
+        ActionMetrics.time("selectDropdown", locatorValue, () -> getDriver().selectOption(locatorType, locatorValue, new SelectOption().setValue(optionValue)));
     }
     
     /**
      * Select dropdown option by index
      */
     public void selectDropdownByIndex(String locatorType, String locatorValue, int index) {
-        Locator select = getElement(locatorType, locatorValue);
-        select.selectOption(new com.microsoft.playwright.options.SelectOption().setIndex(index));
+        ActionMetrics.time("selectDropdown", locatorValue, () -> getDriver().selectOption(locatorType, locatorValue, new SelectOption().setIndex(index)));
     }
     
     /**
      * Hover over element
      */
     public void hoverElement(String locatorType, String locatorValue) {
-        Locator element = getElement(locatorType, locatorValue);
-        element.hover();
+        ActionMetrics.time("hoverElement", locatorValue, () -> getDriver().hover(locatorType, locatorValue));
     }
     
     /**
      * Double click element
      */
     public void doubleClickElement(String locatorType, String locatorValue) {
-        Locator element = getElement(locatorType, locatorValue);
-        element.dblclick();
+        getDriver().doubleClick(locatorType, locatorValue);
     }
     
     /**
      * Right click element
      */
     public void rightClickElement(String locatorType, String locatorValue) {
-        Locator element = getElement(locatorType, locatorValue);
-        element.click(new Locator.ClickOptions().setButton(com.microsoft.playwright.options.MouseButton.RIGHT));
+        getDriver().rightClick(locatorType, locatorValue);
+    }
+    
+    /**
+     * Read text, attributes, visibility and bounding box of every match in one round-trip.
+     * All snapshots come from the same moment, so they are consistent with each other.
+     */
+    public List<ElementSnapshot> queryAll(String locatorType, String locatorValue) {
+        return ActionMetrics.time("queryAll", locatorValue, () -> getDriver().queryAll(locatorType, locatorValue));
     }
     
     /**
      * Get all text values from elements with same locator
      */
     public List<String> getAllTextValues(String locatorType, String locatorValue) {
-        List<Locator> elements = getElements(locatorType, locatorValue);
         List<String> textValues = new ArrayList<>();
         
-        for (Locator element : elements) {
-            textValues.add(element.textContent());
+        for (ElementSnapshot element : queryAll(locatorType, locatorValue)) {
+            textValues.add(element.getText());
         }
         
         return textValues;
     }
     
+    /**
+     * Get the number of visible elements with same locator
+     */
+    public int getVisibleElementCount(String locatorType, String locatorValue) {
+        int count = 0;
+        for (ElementSnapshot element : queryAll(locatorType, locatorValue)) {
+            if (element.isVisible()) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
     /**
      * Get element count
      */
     public int getElementCount(String locatorType, String locatorValue) {
-        Locator element = getElement(locatorType, locatorValue);
-        if (element == null) {
-            System.out.println("Test mode: getElementCount " + locatorType + "=" + locatorValue);
-            return 3; // Return a reasonable count for test mode
-        }
-        return element.count();
+        return ActionMetrics.time("getElementCount", locatorValue, () -> getDriver().count(locatorType, locatorValue));
+    }
+    
+    /**
+     * Wait until the application is ready instead of sleeping for legacyMillis
+     */
+    public void waitForAppReady(String label, int legacyMillis) {
+        ActionMetrics.time("waitForAppReady", label, () -> getDriver().waitForAppReady(label, legacyMillis));
+    }
+    
+    /**
+     * Wait until an element is in the given state instead of sleeping for legacyMillis
+     */
+    public void waitForElementState(String label, int legacyMillis, String selector, WaitForSelectorState state) {
+        ActionMetrics.time("waitForElementState", selector, () -> getDriver().waitForElementState(label, legacyMillis, selector, state));
     }
     
     /**
      * Wait for page to load completely
      */
     public void waitForPageLoad() {
-        Page page = getPage();
-        if (page == null) {
-            System.out.println("Test mode: waitForPageLoad");
-            return;
-        }
-        page.waitForLoadState(com.microsoft.playwright.options.LoadState.NETWORKIDLE);
+        ActionMetrics.time("waitForPageLoad", null, () -> getDriver().waitForLoad());
+    }
+    
+    /**
+     * Click an element and wait for the backend responses registered for the action
+     */
+    public List<Response> clickAndWaitForResponses(String action, String locatorType, String locatorValue) {
+        return performAndWaitForResponses(action, () -> clickElement(locatorType, locatorValue));
+    }
+    
+    /**
+     * Run a trigger and wait for every backend response registered for the action in EndpointRegistry.
+     * Fails with the responses that did arrive when they do not arrive within endpoint.wait.timeout,
+     * or when the action has no endpoints and endpoint.settle.fallback is off.
+     */
+    public List<Response> performAndWaitForResponses(String action, Runnable trigger) {
+        return ActionMetrics.time("waitForResponses", action, () -> getDriver().performAndWaitForResponses(action, trigger));
     }
     
     /**
@@ -368,41 +342,29 @@ public class PlaywrightUtils extends BaseClass {
     /**
      * Get current URL
      */
-    // Simple counter to track URL calls for test mode
-    private static int urlCallCount = 0;
-    
     public String getCurrentUrl() {
-        Page page = getPage();
-        if (page == null) {
-            System.out.println("Test mode: getCurrentUrl (call #" + (++urlCallCount) + ")");
-            if (urlCallCount % 2 == 1) {
-                return "https://qainternal.adl.aulcorp.com/login";
-            } else {
-                return "https://qainternal.adl.aulcorp.com/dashboard";
-            }
-        }
-        return page.url();
+        return getDriver().getUrl();
     }
     
     /**
      * Refresh page
      */
     public void refreshPage() {
-        getPage().reload();
+        getDriver().reload();
     }
     
     /**
      * Navigate back
      */
     public void navigateBack() {
-        getPage().goBack();
+        getDriver().goBack();
     }
     
     /**
      * Navigate forward
      */
     public void navigateForward() {
-        getPage().goForward();
+        getDriver().goForward();
     }
     
     /**
@@ -430,70 +392,49 @@ public class PlaywrightUtils extends BaseClass {
      * Upload file
      */
     public void uploadFile(String locatorType, String locatorValue, String filePath) {
-        Locator fileInput = getElement(locatorType, locatorValue);
-        fileInput.setInputFiles(java.nio.file.Paths.get(filePath));
+        ActionMetrics.time("uploadFile", locatorValue, () -> getDriver().uploadFile(locatorType, locatorValue, Paths.get(filePath)));
     }
     
     /**
      * Press keyboard key
      */
     public void pressKey(String key) {
-        Page page = getPage();
-        if (page == null) {
-            System.out.println("Test mode: pressKey " + key);
-            return;
-        }
-        page.keyboard().press(key);
+        getDriver().pressKey(key);
     }
     
     /**
      * Type text using keyboard
      */
     public void typeUsingKeyboard(String text) {
-        getPage().keyboard().type(text);
+        getDriver().typeKeys(text);
     }
     
     /**
      * Get CSS property value
      */
     public String getCssValue(String locatorType, String locatorValue, String property) {
-        Locator element = getElement(locatorType, locatorValue);
-        return (String) element.evaluate("el => getComputedStyle(el)." + property);
+        return getDriver().getCssValue(locatorType, locatorValue, property);
     }
     
     /**
      * Execute JavaScript
      */
     public Object executeJavaScript(String script) {
-        return getPage().evaluate(script);
+        return getDriver().evaluate(script);
     }
     
     /**
      * Check checkbox
      */
     public void checkCheckbox(String locatorType, String locatorValue) {
-        Locator checkbox = getElement(locatorType, locatorValue);
-        if (checkbox == null) {
-            System.out.println("Test mode: checkCheckbox " + locatorType + "=" + locatorValue);
-            return;
-        }
-        if (!checkbox.isChecked()) {
-            checkbox.check();
-        }
+        ActionMetrics.time("checkCheckbox", locatorValue, () -> getDriver().setChecked(locatorType, locatorValue, true));
     }
     
     /**
      * Uncheck checkbox
      */
     public void uncheckCheckbox(String locatorType, String locatorValue) {
-        Locator checkbox = getElement(locatorType, locatorValue);
-        if (checkbox == null) {
-            System.out.println("Test mode: uncheckCheckbox " + locatorType + "=" + locatorValue);
-            return;
-        }
-        if (checkbox.isChecked()) {
-            checkbox.uncheck();
-        }
+        ActionMetrics.time("uncheckCheckbox", locatorValue, () -> getDriver().setChecked(locatorType, locatorValue, false));
     }
     
     /**
@@ -0,0 +1,335 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.testng.ITestResult;
+import pageActions.DashboardPageActions;
+import pageActions.LoginPageActions;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Skips tests that already passed against the same application build with the same test code.
+ *
+ * The cache key of a test invocation combines the application build (the dashboard's version
+ * label, read once per run by logging in on a context of its own, or result.cache.app.version
+ * when set), a hash of the sources of its test class, the page objects and page actions it
+ * reaches and the framework (see TestImpact), and its data provider row and parameters. When the
+ * stored key of a test matches, BaseClass does not run it and it is reported as a cached pass.
+ *
+ * Off unless result.cache.enabled (also as -D) is true. Passes on the first attempt are stored in
+ * result.cache.file; failures and flaky passes remove the entry. -Dresult.cache.force=true runs
+ * every test and refreshes the cache. When the build cannot be read or the sources cannot be
+ * parsed (no JDK), the cache is off for the run. Distributed workers stream their updates to the
+ * WorkCoordinator, which writes the file.
+ */
+public class ResultCache {
+
+    private static final String CACHED = "resultCache.cached";
+    private static final String KEY = "resultCache.key";
+    private static final Map<String, ObjectNode> updates = new ConcurrentHashMap<>();
+    private static final Set<String> removed = ConcurrentHashMap.newKeySet();
+    private static final AtomicInteger hits = new AtomicInteger();
+    private static final Object lock = new Object();
+    private static Map<String, ObjectNode> entries;
+    private static String appVersion;
+    private static Map<String, String> codeHashes;
+    private static boolean disabled;
+
+    /**
+     * Check if result caching is enabled (-Dresult.cache.enabled, else config.properties)
+     */
+    public static boolean isEnabled() {
+        return BaseClass.prop != null && Boolean.parseBoolean(getProperty("result.cache.enabled", "false"));
+    }
+
+    /**
+     * True when the invocation passed before with the same key; it is then not run
+     */
+    public static boolean isCachedPass(ITestResult result) {
+        if (!isEnabled() || !prepare()) {
+            return false;
+        }
+        String key = key(result);
+        if (key == null) {
+            return false;
+        }
+        result.setAttribute(KEY, key);
+        if (Boolean.getBoolean("result.cache.force")) {
+            return false;
+        }
+
+        ObjectNode entry;
+        synchronized (lock) {
+            entry = entries.get(TestListener.getTestKey(result));
+        }
+        if (entry == null || !entry.path("key").asText().equals(key)) {
+            return false;
+        }
+        result.setAttribute(CACHED, entry.path("passed").asText());
+        hits.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Check if a test was reported from the cache instead of being run
+     */
+    public static boolean isCached(ITestResult result) {
+        return result.getAttribute(CACHED) != null;
+    }
+
+    /**
+     * When the cached pass was recorded
+     */
+    public static String getCachedSince(ITestResult result) {
+        return String.valueOf(result.getAttribute(CACHED));
+    }
+
+    /**
+     * Store a first-attempt pass, or drop the entry of a test that failed or needed a retry
+     */
+    public static void record(ITestResult result) {
+        ObjectNode entry = entry(result);
+        if (entry != null) {
+            record(TestListener.getTestKey(result), entry);
+        }
+    }
+
+    /**
+     * Apply a cache update reported by a distributed worker: an entry to store, or an empty one
+     * to drop the test's entry
+     */
+    public static void record(String testKey, ObjectNode entry) {
+        if (entry.has("key")) {
+            updates.put(testKey, entry);
+            removed.remove(testKey);
+        } else {
+            updates.remove(testKey);
+            removed.add(testKey);
+        }
+    }
+
+    /**
+     * Cache update of a finished invocation (empty to drop its entry), or null when it has none
+     * because it was not keyed or was itself a cached pass
+     */
+    static ObjectNode entry(ITestResult result) {
+        Object key = result.getAttribute(KEY);
+        if (key == null || isCached(result)) {
+            return null;
+        }
+        ObjectNode entry = new ObjectMapper().createObjectNode();
+        if (result.getStatus() == ITestResult.SUCCESS && RetryAnalyzer.getRetries(result) == 0) {
+            entry.put("key", key.toString());
+            entry.put("app", appVersion);
+            entry.put("passed", LocalDateTime.now().toString());
+        }
+        return entry;
+    }
+
+    /**
+     * Print how many tests were skipped as cached passes and write this run's results to the cache
+     */
+    public static void save() {
+        synchronized (lock) {
+            if (hits.get() > 0) {
+                System.out.println("Result cache: " + hits.getAndSet(0) + " test(s) reported as cached passes for app build "
+                        + appVersion + " (-Dresult.cache.force=true runs them)");
+            }
+            // Workers stream their updates to the WorkCoordinator, which writes the file once
+            if ((updates.isEmpty() && removed.isEmpty()) || WorkCoordinator.isWorker()) {
+                return;
+            }
+            // The coordinator never runs a test, so it reads the cache only now
+            Map<String, ObjectNode> cache = new TreeMap<>(entries != null ? entries : load());
+            for (String testKey : new ArrayList<>(updates.keySet())) {
+                ObjectNode entry = updates.remove(testKey);
+                if (entry != null) {
+                    cache.put(testKey, entry);
+                }
+            }
+            for (String testKey : new ArrayList<>(removed)) {
+                removed.remove(testKey);
+                cache.remove(testKey);
+            }
+            entries = cache;
+
+            Path file = getFile();
+            try {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                ObjectMapper mapper = new ObjectMapper();
+                ObjectNode root = mapper.createObjectNode();
+                root.put("updated", LocalDateTime.now().toString());
+                root.set("tests", mapper.valueToTree(cache));
+                mapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), root);
+            } catch (IOException e) {
+                System.out.println("Failed to save result cache: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Read the cache, the application build and the code hashes once per run; false turns the cache off
+     */
+    private static boolean prepare() {
+        synchronized (lock) {
+            if (entries != null || disabled) {
+                return !disabled;
+            }
+            appVersion = getProperty("result.cache.app.version", "");
+            if (appVersion.isEmpty()) {
+                appVersion = readAppVersion();
+            }
+            if (appVersion.isEmpty()) {
+                System.out.println("Result cache off for this run: the application build could not be read");
+                disabled = true;
+                return false;
+            }
+            try {
+                codeHashes = hashSources();
+            } catch (RuntimeException e) {
+                System.out.println("Result cache off for this run: " + e.getMessage());
+                disabled = true;
+                return false;
+            }
+            entries = load();
+            System.out.println("Result cache: app build " + appVersion + ", " + entries.size() + " cached test(s)");
+            return true;
+        }
+    }
+
+    /**
+     * Version label of the dashboard footer, read after logging in as the admin user
+     */
+    private static String readAppVersion() {
+        try {
+            return BaseClass.inOwnContext(() -> {
+                try {
+                    BaseClass.navigate();
+                    new LoginPageActions().login(BaseClass.prop.getProperty("adminusername"),
+                            BaseClass.prop.getProperty("adminpassword"));
+                    DashboardPageActions dashboard = new DashboardPageActions();
+                    dashboard.waitForDashboardToLoad();
+                    return dashboard.getVersionInfo().trim();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return "";
+                }
+            });
+        } catch (RuntimeException e) {
+            System.out.println("Failed to read the application build: " + e.getMessage());
+            return "";
+        }
+    }
+
+    /**
+     * Hash of the sources each test class depends on
+     */
+    private static Map<String, String> hashSources() {
+        List<Path> sourceDirs = new ArrayList<>();
+        for (String dir : BaseClass.prop.getProperty("impact.source.dirs", "src/main/java,src/test/java").split(",")) {
+            sourceDirs.add(Paths.get(dir.trim()));
+        }
+        Path root = Paths.get("").toAbsolutePath();
+        Map<Path, byte[]> contents = new HashMap<>();
+        Map<String, String> hashes = new HashMap<>();
+        for (Map.Entry<String, Set<Path>> entry : TestImpact.sourcesByTestClass(sourceDirs).entrySet()) {
+            MessageDigest digest = sha256();
+            for (Path file : entry.getValue()) {
+                digest.update(root.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                digest.update(contents.computeIfAbsent(file, ResultCache::read));
+            }
+            hashes.put(entry.getKey(), hex(digest.digest()));
+        }
+        return hashes;
+    }
+
+    /**
+     * App build, code hash, data provider row and parameters; null when the test class was not parsed
+     */
+    private static String key(ITestResult result) {
+        String codeHash = codeHashes.get(result.getTestClass().getRealClass().getName());
+        if (codeHash == null) {
+            return null;
+        }
+        int row = TestListener.getRow(result);
+        String text = appVersion + "\n" + codeHash + "\n" + (row < 0 ? "" : String.valueOf(row)) + "\n"
+                + Arrays.deepToString(result.getParameters());
+        return hex(sha256().digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static Map<String, ObjectNode> load() {
+        Map<String, ObjectNode> cache = new TreeMap<>();
+        Path file = getFile();
+        if (!Files.exists(file)) {
+            return cache;
+        }
+        try {
+            JsonNode tests = new ObjectMapper().readTree(file.toFile()).path("tests");
+            for (Iterator<Map.Entry<String, JsonNode>> it = tests.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> entry = it.next();
+                if (entry.getValue() instanceof ObjectNode) {
+                    cache.put(entry.getKey(), (ObjectNode) entry.getValue());
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Ignoring unreadable result cache " + file + ": " + e.getMessage());
+        }
+        return cache;
+    }
+
+    private static byte[] read(Path file) {
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read " + file, e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 not available", e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * A -D system property when set and not empty, else config.properties
+     */
+    private static String getProperty(String key, String defaultValue) {
+        String value = System.getProperty(key, "");
+        return value.isEmpty() ? BaseClass.prop.getProperty(key, defaultValue) : value;
+    }
+
+    private static Path getFile() {
+        return Paths.get(BaseClass.prop.getProperty("result.cache.file", "test-results/history/result-cache.json"));
+    }
+}
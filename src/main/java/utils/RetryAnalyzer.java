@@ -0,0 +1,220 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.testng.IAnnotationTransformer;
+import org.testng.IRetryAnalyzer;
+import org.testng.ITestResult;
+import org.testng.annotations.ITestAnnotation;
+import org.testng.internal.annotations.DisabledRetryAnalyzer;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Retries failed tests up to retry.count times, each retry in a fresh BrowserContext.
+ *
+ * Registered as a listener in the suite XML, it sets itself as the retry analyzer of every @Test
+ * that does not name its own. BaseClass asks consumeRetry() before each test and gives a retried
+ * test a new browser lease and context, so state left behind by the failed attempt cannot leak
+ * into the retry. Failed attempts that are retried are reported as skipped, so TestListener only
+ * takes screenshots and screencasts of the last attempt, and their traces are deleted.
+ *
+ * TestListener reports the outcome of every test (distributed workers stream it to the
+ * WorkCoordinator instead); onFinish prints the tests that needed retries and adds the run to
+ * retry.history.file, which keeps per test how many runs it had, how many of
+ * those only passed after a retry (flaky) and the resulting flake rate.
+ */
+public class RetryAnalyzer implements IRetryAnalyzer, IAnnotationTransformer {
+
+    private static final Map<String, AtomicInteger> retries = new ConcurrentHashMap<>();
+    private static final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private static final Map<String, Outcome> outcomes = new ConcurrentHashMap<>();
+    private static final Object lock = new Object();
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void transform(ITestAnnotation annotation, Class testClass, Constructor testConstructor, Method testMethod) {
+        Class<? extends IRetryAnalyzer> current = annotation.getRetryAnalyzerClass();
+        if (current == null || current == DisabledRetryAnalyzer.class) {
+            annotation.setRetryAnalyzer(RetryAnalyzer.class);
+        }
+    }
+
+    @Override
+    public boolean retry(ITestResult result) {
+        String key = TestListener.getTestKey(result);
+        int attempt = retries.computeIfAbsent(key, k -> new AtomicInteger()).get();
+        if (attempt >= getMaxRetries()) {
+            return false;
+        }
+        retries.get(key).incrementAndGet();
+        pending.add(key);
+        System.out.println("Retrying " + TestListener.getTestName(result) + " (retry " + (attempt + 1) + " of "
+                + getMaxRetries() + ") after: " + (result.getThrowable() == null ? "failure" : result.getThrowable().getMessage()));
+        return true;
+    }
+
+    /**
+     * True once for an invocation that retries a failed attempt
+     */
+    public static boolean consumeRetry(ITestResult result) {
+        return pending.remove(TestListener.getTestKey(result));
+    }
+
+    /**
+     * Number of retries a test has used so far
+     */
+    public static int getRetries(ITestResult result) {
+        AtomicInteger count = retries.get(TestListener.getTestKey(result));
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * Remember the final outcome of a test (called for its last attempt)
+     */
+    public static void recordOutcome(ITestResult result) {
+        recordOutcome(TestListener.getTestKey(result), TestListener.getTestName(result),
+                result.getTestClass().getRealClass().getSimpleName(), getRetries(result),
+                result.getStatus() == ITestResult.SUCCESS);
+    }
+
+    /**
+     * Remember the final outcome of a test reported by a distributed worker
+     */
+    public static void recordOutcome(String key, String testName, String className, int retries, boolean passed) {
+        outcomes.put(key, new Outcome(testName, className, retries, passed));
+    }
+
+    /**
+     * Print the tests that needed retries and add this run to the flakiness history
+     */
+    public static void report() {
+        synchronized (lock) {
+            // Workers stream their outcomes to the WorkCoordinator, which reports them once
+            if (outcomes.isEmpty() || WorkCoordinator.isWorker()) {
+                return;
+            }
+            Map<String, Outcome> run = new TreeMap<>();
+            for (String key : outcomes.keySet()) {
+                Outcome outcome = outcomes.remove(key);
+                if (outcome != null) {
+                    run.put(key, outcome);
+                }
+            }
+
+            Map<String, ObjectNode> history = loadHistory();
+            List<String> retried = new ArrayList<>();
+            ObjectMapper mapper = new ObjectMapper();
+            for (Map.Entry<String, Outcome> entry : run.entrySet()) {
+                Outcome outcome = entry.getValue();
+                ObjectNode stats = history.computeIfAbsent(entry.getKey(), k -> mapper.createObjectNode());
+                int runs = stats.path("runs").asInt() + 1;
+                int flaky = stats.path("flaky").asInt() + (outcome.passed && outcome.retries > 0 ? 1 : 0);
+                stats.put("runs", runs);
+                stats.put("flaky", flaky);
+                stats.put("failed", stats.path("failed").asInt() + (outcome.passed ? 0 : 1));
+                stats.put("retries", stats.path("retries").asInt() + outcome.retries);
+                stats.put("flakeRate", Math.round(1000.0 * flaky / runs) / 1000.0);
+                if (outcome.retries > 0) {
+                    retried.add(entry.getKey());
+                }
+            }
+
+            if (!retried.isEmpty()) {
+                retried.sort(Comparator.comparingDouble((String key) -> -history.get(key).path("flakeRate").asDouble()));
+                System.out.println("========== Retried tests ==========");
+                System.out.println(String.format("%-60s %7s %-7s %10s", "Test", "Retries", "Result", "Flake rate"));
+                for (String key : retried) {
+                    Outcome outcome = run.get(key);
+                    JsonNode stats = history.get(key);
+                    System.out.println(String.format("%-60s %7d %-7s %9.1f%% (%d/%d runs)",
+                            outcome.className + "." + outcome.testName, outcome.retries, outcome.passed ? "flaky" : "FAILED",
+                            stats.path("flakeRate").asDouble() * 100, stats.path("flaky").asInt(), stats.path("runs").asInt()));
+                }
+                System.out.println("===================================");
+            }
+            save(history);
+        }
+    }
+
+    /**
+     * Runs, flaky passes, failures and retries per test key from retry.history.file
+     */
+    static Map<String, ObjectNode> loadHistory() {
+        Map<String, ObjectNode> history = new TreeMap<>();
+        Path file = getFile();
+        if (!Files.exists(file)) {
+            return history;
+        }
+        try {
+            JsonNode tests = new ObjectMapper().readTree(file.toFile()).path("tests");
+            for (Iterator<Map.Entry<String, JsonNode>> it = tests.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> entry = it.next();
+                if (entry.getValue() instanceof ObjectNode) {
+                    history.put(entry.getKey(), (ObjectNode) entry.getValue());
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Ignoring unreadable retry history " + file + ": " + e.getMessage());
+        }
+        return history;
+    }
+
+    private static void save(Map<String, ObjectNode> history) {
+        Path file = getFile();
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            ObjectMapper mapper = new ObjectMapper();
+            ObjectNode root = mapper.createObjectNode();
+            root.put("updated", LocalDateTime.now().toString());
+            root.set("tests", mapper.valueToTree(history));
+            mapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), root);
+        } catch (IOException e) {
+            System.out.println("Failed to save retry history: " + e.getMessage());
+        }
+    }
+
+    private static int getMaxRetries() {
+        BaseClass.loadProperties();
+        return Integer.parseInt(BaseClass.prop.getProperty("retry.count", "1"));
+    }
+
+    private static Path getFile() {
+        BaseClass.loadProperties();
+        return Paths.get(BaseClass.prop.getProperty("retry.history.file", "test-results/history/flakiness.json"));
+    }
+
+    /**
+     * Final outcome of a test in the current run
+     */
+    private static class Outcome {
+        private final String testName;
+        private final String className;
+        private final int retries;
+        private final boolean passed;
+
+        Outcome(String testName, String className, int retries, boolean passed) {
+            this.testName = testName;
+            this.className = className;
+            this.retries = retries;
+            this.passed = passed;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.testng.IAlterSuiteListener;
+import org.testng.ITestResult;
+import org.testng.xml.XmlSuite;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Status of every test of the last run, and the -Drerun=failed mode built on it.
+ *
+ * TestListener records the final result of each test invocation (after retries): &lt;test&gt; tag,
+ * class, method, data provider row, status, parameters and the start of the run. onFinish writes them to
+ * rerun.manifest.file, one compact JSON line per invocation (distributed workers stream their
+ * entries to the WorkCoordinator, which writes the file). Parameters whose value is a configured
+ * password are masked.
+ *
+ * Registered in the suite XML, it rebuilds the suite from that manifest when the run is started
+ * with -Drerun=failed: only classes with failed or skipped tests stay, each including just those
+ * methods (failed data provider rows by their invocation numbers) plus the methods they depend on
+ * through dependsOnMethods/dependsOnGroups. A rerun updates the entries it ran, so repeating
+ * -Drerun=failed narrows down to what is still failing.
+ *
+ * Sharded runs trim the suite here before SuiteSharder splits it, so every shard must start from
+ * the same manifest: ShardMerger merges the shards' manifests, keeping the latest entry of each test.
+ */
+public class RunManifest implements IAlterSuiteListener {
+
+    private static final String RUN = LocalDateTime.now().toString();
+    private static final Map<String, ObjectNode> entries = new ConcurrentHashMap<>();
+    private static final Object lock = new Object();
+    private static volatile Map<String, ObjectNode> previous;
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        // Distributed workers run the suite the WorkCoordinator already trimmed
+        if (!"failed".equals(System.getProperty("rerun")) || WorkCoordinator.isWorker()) {
+            return;
+        }
+        BaseClass.loadProperties();
+        Path file = getFile();
+        if (!Files.exists(file)) {
+            throw new RuntimeException("-Drerun=failed needs the run manifest " + file + " of an earlier run");
+        }
+        previous = load(file);
+
+        int methods = SuiteFilter.retain(suites, this::rerunRows);
+        System.out.println(methods == 0 ? "Nothing to rerun - no failed tests in " + file
+                : "Rerunning " + methods + " failed or skipped test method(s) and their dependencies from " + file);
+    }
+
+    /**
+     * Record the final result of a test invocation
+     */
+    public static void record(ITestResult result) {
+        record(entry(result));
+    }
+
+    /**
+     * Record the final result of a test invocation reported by a distributed worker
+     */
+    public static void record(ObjectNode entry) {
+        entries.put(key(entry), entry);
+    }
+
+    /**
+     * Manifest entry of a test invocation
+     */
+    static ObjectNode entry(ITestResult result) {
+        int row = TestListener.getRow(result);
+        ObjectNode entry = new ObjectMapper().createObjectNode();
+        entry.put("test", result.getTestContext().getCurrentXmlTest().getName());
+        entry.put("class", result.getTestClass().getRealClass().getName());
+        entry.put("method", result.getMethod().getMethodName());
+        if (row >= 0) {
+            entry.put("row", row);
+            entry.put("params", describe(result.getParameters()));
+        }
+        entry.put("status", result.getStatus() == ITestResult.SUCCESS ? "PASS"
+                : result.getStatus() == ITestResult.FAILURE ? "FAIL" : "SKIP");
+        entry.put("run", RUN);
+        return entry;
+    }
+
+    /**
+     * Write the manifest of this run; a rerun keeps the earlier entries of the tests it did not run
+     */
+    public static void save() {
+        synchronized (lock) {
+            // Workers stream their entries to the WorkCoordinator, which saves them once
+            if (entries.isEmpty() || WorkCoordinator.isWorker()) {
+                return;
+            }
+            Map<String, ObjectNode> manifest = new LinkedHashMap<>();
+            if (previous != null) {
+                manifest.putAll(previous);
+            }
+            manifest.putAll(entries);
+
+            Path file = getFile();
+            try {
+                write(manifest, file);
+                System.out.println("Run manifest written to " + file);
+            } catch (IOException e) {
+                System.out.println("Failed to write run manifest: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Combine the manifests of several shards, keeping the entry of the latest run for every test
+     */
+    static void merge(List<Path> files, Path target) throws IOException {
+        Map<String, ObjectNode> manifest = new LinkedHashMap<>();
+        for (Path file : files) {
+            for (Map.Entry<String, ObjectNode> entry : load(file).entrySet()) {
+                ObjectNode existing = manifest.get(entry.getKey());
+                if (existing == null || entry.getValue().path("run").asText().compareTo(existing.path("run").asText()) > 0) {
+                    manifest.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        write(manifest, target);
+        System.out.println("Merged run manifest of " + files.size() + " shard(s) into " + target);
+    }
+
+    private static void write(Map<String, ObjectNode> manifest, Path file) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        // One line per invocation keeps the manifest compact and diffable
+        StringBuilder json = new StringBuilder("{\n  \"updated\" : \"" + LocalDateTime.now() + "\",\n  \"tests\" : [");
+        String separator = "\n    ";
+        for (String key : new TreeSet<>(manifest.keySet())) {
+            json.append(separator).append(mapper.writeValueAsString(manifest.get(key)));
+            separator = ",\n    ";
+        }
+        json.append("\n  ]\n}\n");
+        Files.write(file, json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Failed and skipped methods of a class with their failed data provider rows
+     */
+    private Map<String, Set<Integer>> rerunRows(String testName, String className) {
+        Map<String, Set<Integer>> rows = new LinkedHashMap<>();
+        for (ObjectNode entry : previous.values()) {
+            if (!entry.path("status").asText().equals("PASS") && entry.path("test").asText().equals(testName)
+                    && entry.path("class").asText().equals(className)) {
+                Set<Integer> methodRows = rows.computeIfAbsent(entry.path("method").asText(), k -> new TreeSet<>());
+                if (entry.has("row")) {
+                    methodRows.add(entry.path("row").asInt());
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static Map<String, ObjectNode> load(Path file) {
+        Map<String, ObjectNode> manifest = new LinkedHashMap<>();
+        try {
+            for (JsonNode entry : new ObjectMapper().readTree(file.toFile()).path("tests")) {
+                if (entry instanceof ObjectNode) {
+                    manifest.put(key((ObjectNode) entry), (ObjectNode) entry);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unreadable run manifest " + file, e);
+        }
+        return manifest;
+    }
+
+    private static String key(ObjectNode entry) {
+        return entry.path("test").asText() + "|" + entry.path("class").asText() + "#" + entry.path("method").asText()
+                + (entry.has("row") ? String.format("[%05d]", entry.path("row").asInt()) : "");
+    }
+
+    /**
+     * Parameters as text, with configured passwords masked
+     */
+    private static String describe(Object[] parameters) {
+        List<String> values = new ArrayList<>();
+        for (Object parameter : parameters) {
+            String value = String.valueOf(parameter);
+            for (String name : BaseClass.prop.stringPropertyNames()) {
+                if (name.toLowerCase().contains("password") && value.equals(BaseClass.prop.getProperty(name))
+                        && !value.isEmpty()) {
+                    value = "****";
+                }
+            }
+            values.add(value.length() > 80 ? value.substring(0, 77) + "..." : value);
+        }
+        return values.toString();
+    }
+
+    private static Path getFile() {
+        return Paths.get(BaseClass.prop.getProperty("rerun.manifest.file", "test-results/history/run-manifest.json"));
+    }
+}
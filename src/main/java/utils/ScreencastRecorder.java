@@ -0,0 +1,157 @@
+package utils;
+
+import com.google.gson.JsonObject;
+import com.microsoft.playwright.CDPSession;
+import com.microsoft.playwright.Page;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Chromium-only alternative to video recording.
+ *
+ * Pages stream JPEG frames through the DevTools screencast into a bounded per-thread ring buffer
+ * holding the last screencast.buffer.seconds of frames. Nothing is written unless a test fails,
+ * in which case TestListener flushes the buffer to test-results/screencast/&lt;test&gt;_&lt;timestamp&gt;/.
+ */
+public class ScreencastRecorder {
+
+    private static final Path SCREENCAST_DIR = Paths.get("test-results/screencast");
+    private static final ThreadLocal<ScreencastRecorder> recorder = ThreadLocal.withInitial(ScreencastRecorder::new);
+
+    private final ArrayDeque<Frame> frames = new ArrayDeque<>();
+    private final long windowMillis;
+    private final int maxFrames;
+
+    private ScreencastRecorder() {
+        this.windowMillis = (long) (Double.parseDouble(getProperty("screencast.buffer.seconds", "10")) * 1000);
+        this.maxFrames = Integer.parseInt(getProperty("screencast.max.frames", "300"));
+    }
+
+    /**
+     * Check if the screencast buffer is enabled in config.properties
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(getProperty("screencast.enabled", "false"));
+    }
+
+    /**
+     * Start streaming a page's screencast into the current thread's buffer (Chromium only)
+     */
+    public static void attach(Page page) {
+        if (!isEnabled() || page == null) {
+            return;
+        }
+        if (!"chromium".equals(page.context().browser().browserType().name())) {
+            System.out.println("Screencast buffer is only supported on Chromium - skipping");
+            return;
+        }
+
+        ScreencastRecorder target = recorder.get();
+        try {
+            CDPSession session = page.context().newCDPSession(page);
+            session.on("Page.screencastFrame", event -> {
+                target.add(event.get("data").getAsString());
+                JsonObject ack = new JsonObject();
+                ack.addProperty("sessionId", event.get("sessionId").getAsInt());
+                try {
+                    session.send("Page.screencastFrameAck", ack);
+                } catch (Exception e) {
+                    // The page is closing - no more frames will arrive
+                }
+            });
+
+            JsonObject params = new JsonObject();
+            params.addProperty("format", "jpeg");
+            params.addProperty("quality", Integer.parseInt(getProperty("screencast.quality", "50")));
+            params.addProperty("maxWidth", Integer.parseInt(getProperty("screencast.max.width", "1280")));
+            params.addProperty("maxHeight", Integer.parseInt(getProperty("screencast.max.height", "720")));
+            session.send("Page.startScreencast", params);
+        } catch (Exception e) {
+            System.out.println("Failed to start screencast: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Drop the frames of the previous test on this thread
+     */
+    public static void beginTest() {
+        if (isEnabled()) {
+            recorder.get().clear();
+        }
+    }
+
+    /**
+     * Write the buffered frames of the current thread to disk. Returns the directory, or null
+     * when there was nothing to write.
+     */
+    public static Path flush(String testName) {
+        if (!isEnabled()) {
+            return null;
+        }
+        List<Frame> snapshot = recorder.get().drain();
+        if (snapshot.isEmpty()) {
+            return null;
+        }
+
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+        Path dir = SCREENCAST_DIR.resolve(testName.replaceAll("[^A-Za-z0-9._-]", "_") + "_" + timestamp);
+        try {
+            Files.createDirectories(dir);
+            long first = snapshot.get(0).receivedMillis;
+            for (int i = 0; i < snapshot.size(); i++) {
+                Frame frame = snapshot.get(i);
+                String fileName = String.format("frame-%04d_+%dms.jpg", i + 1, frame.receivedMillis - first);
+                Files.write(dir.resolve(fileName), Base64.getDecoder().decode(frame.data));
+            }
+        } catch (IOException e) {
+            System.out.println("Failed to write screencast: " + e.getMessage());
+            return null;
+        }
+        System.out.println("Screencast saved: " + dir + " (" + snapshot.size() + " frames)");
+        return dir;
+    }
+
+    private synchronized void add(String data) {
+        long now = System.currentTimeMillis();
+        frames.addLast(new Frame(now, data));
+        while (frames.size() > maxFrames || now - frames.peekFirst().receivedMillis > windowMillis) {
+            frames.removeFirst();
+        }
+    }
+
+    private synchronized void clear() {
+        frames.clear();
+    }
+
+    private synchronized List<Frame> drain() {
+        List<Frame> snapshot = new ArrayList<>(frames);
+        frames.clear();
+        return snapshot;
+    }
+
+    private static String getProperty(String key, String defaultValue) {
+        return BaseClass.prop == null ? defaultValue : BaseClass.prop.getProperty(key, defaultValue);
+    }
+
+    /**
+     * One base64-encoded JPEG frame, decoded only when flushed
+     */
+    private static class Frame {
+        private final long receivedMillis;
+        private final String data;
+
+        Frame(long receivedMillis, String data) {
+            this.receivedMillis = receivedMillis;
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.playwright.BrowserContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Disk cache of authenticated Playwright storage states, one per user (and impersonated role).
+ *
+ * A cached session is considered stale when it is older than session.cache.ttl.minutes or when
+ * any of its persistent cookies has expired. Callers still verify the session against the
+ * application and invalidate it when the app sends them back to the login form.
+ */
+public class SessionCache {
+
+    private static final Path SESSION_DIR = Paths.get("test-results/sessions");
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final ConcurrentHashMap<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Check if session caching is enabled in config.properties
+     */
+    public static boolean isEnabled() {
+        return BaseClass.prop != null
+                && Boolean.parseBoolean(BaseClass.prop.getProperty("session.cache.enabled", "false"));
+    }
+
+    /**
+     * Build the cache key for a user, optionally impersonating a role
+     */
+    public static String key(String username, String roleType) {
+        return roleType == null ? username : username + "#" + roleType;
+    }
+
+    /**
+     * Lock guarding a key, so parallel threads log in once and then reuse the saved session
+     */
+    public static ReentrantLock lockFor(String key) {
+        return locks.computeIfAbsent(key, k -> new ReentrantLock());
+    }
+
+    /**
+     * Get the saved storage state for a key if it exists and has not expired, otherwise null
+     */
+    public static Path getFreshState(String key) {
+        Path statePath = getStatePath(key);
+        if (!Files.exists(statePath)) {
+            return null;
+        }
+
+        try {
+            long ttlMillis = Long.parseLong(BaseClass.prop.getProperty("session.cache.ttl.minutes", "30")) * 60_000L;
+            long age = System.currentTimeMillis() - Files.getLastModifiedTime(statePath).toMillis();
+            if (age > ttlMillis) {
+                System.out.println("Cached session for " + key + " is older than the TTL - discarding");
+                invalidate(key);
+                return null;
+            }
+
+            if (hasExpiredCookie(statePath)) {
+                System.out.println("Cached session for " + key + " has expired cookies - discarding");
+                invalidate(key);
+                return null;
+            }
+        } catch (IOException e) {
+            System.out.println("Failed to read cached session for " + key + ": " + e.getMessage());
+            invalidate(key);
+            return null;
+        }
+
+        return statePath;
+    }
+
+    /**
+     * Save the storage state of an authenticated context for a key
+     */
+    public static void save(String key, BrowserContext context) {
+        if (context == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(SESSION_DIR);
+            Path statePath = getStatePath(key);
+            Path tempPath = Files.createTempFile(SESSION_DIR, "session", ".tmp");
+            context.storageState(new BrowserContext.StorageStateOptions().setPath(tempPath));
+            Files.move(tempPath, statePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            System.out.println("Saved session for " + key);
+        } catch (Exception e) {
+            System.out.println("Failed to save session for " + key + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Delete the saved session for a key
+     */
+    public static void invalidate(String key) {
+        try {
+            Files.deleteIfExists(getStatePath(key));
+        } catch (IOException e) {
+            System.out.println("Failed to delete cached session for " + key + ": " + e.getMessage());
+        }
+    }
+
+    private static Path getStatePath(String key) {
+        return SESSION_DIR.resolve(key.replaceAll("[^A-Za-z0-9._-]", "_") + ".json");
+    }
+
+    private static boolean hasExpiredCookie(Path statePath) throws IOException {
+        JsonNode cookies = mapper.readTree(statePath.toFile()).path("cookies");
+        double nowSeconds = System.currentTimeMillis() / 1000.0;
+        for (JsonNode cookie : cookies) {
+            double expires = cookie.path("expires").asDouble(-1);
+            // Session cookies are stored with expires = -1
+            if (expires > 0 && expires < nowSeconds) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,235 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Combines the reports of the shards of a SuiteSharder run into one.
+ *
+ * Each shard directory (a downloaded CI artifact, e.g. target/surefire-reports or test-output) is
+ * searched for testng-results.xml, TEST-*.xml JUnit reports, test history files and run manifests.
+ * The history files are written to test-results/history, outside the report directories, so pass
+ * that directory of every shard too (or an artifact holding both); a missing one is warned about.
+ * The output directory gets one testng-results.xml with the suites of the same name merged and the
+ * totals summed, all JUnit reports, a durations.json taking each class's timings from the shard
+ * that ran it, and a run-manifest.json with the latest result of every test. The next run's shards
+ * should all start from those files so they keep computing the same balanced split, and with
+ * -Drerun=failed the same set of failed classes to split.
+ *
+ * Usage: ShardMerger &lt;output-dir&gt; &lt;shard-dir&gt;...
+ */
+public class ShardMerger {
+
+    private static final String[] COUNTS = {"total", "passed", "failed", "skipped", "ignored"};
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: ShardMerger <output-dir> <shard-dir>...");
+            System.exit(2);
+        }
+        List<Path> shardDirs = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            shardDirs.add(Paths.get(args[i]));
+        }
+        Path output = Paths.get(args[0]);
+        // Files left by an earlier merge into the same directory would hide the warnings below
+        Files.deleteIfExists(output.resolve("durations.json"));
+        Files.deleteIfExists(output.resolve("run-manifest.json"));
+        merge(output, shardDirs);
+        // The WorkCoordinator keeps the history itself; shards leave it in test-results/history
+        if (!Files.exists(output.resolve("durations.json"))) {
+            System.out.println("WARNING: no durations.json found in the shard directories; pass each shard's "
+                    + "test-results/history too, or the next run's shards split without the merged history");
+        }
+        if (!Files.exists(output.resolve("run-manifest.json"))) {
+            System.out.println("WARNING: no run-manifest.json found in the shard directories; pass each shard's "
+                    + "test-results/history too, or -Drerun=failed has no merged manifest to start from");
+        }
+    }
+
+    /**
+     * Merge the reports found under the shard directories into the output directory
+     */
+    public static void merge(Path output, List<Path> shardDirs) throws Exception {
+        Files.createDirectories(output);
+
+        List<Path> results = new ArrayList<>();
+        List<Path> junitReports = new ArrayList<>();
+        List<Path> histories = new ArrayList<>();
+        List<Path> manifests = new ArrayList<>();
+        for (Path shardDir : shardDirs) {
+            for (Path file : list(shardDir)) {
+                String name = file.getFileName().toString();
+                if (name.equals("testng-results.xml")) {
+                    results.add(file);
+                } else if (name.startsWith("TEST-") && name.endsWith(".xml")) {
+                    junitReports.add(file);
+                } else if (name.equals("durations.json")) {
+                    histories.add(file);
+                } else if (name.equals("run-manifest.json")) {
+                    manifests.add(file);
+                }
+            }
+        }
+
+        if (results.isEmpty()) {
+            throw new RuntimeException("No testng-results.xml found in the shard directories");
+        }
+        mergeResults(results, output.resolve("testng-results.xml"));
+        for (Path report : junitReports) {
+            // Per-class reports are unique across shards; TEST-TestSuite.xml exists once per shard
+            Path copy = output.resolve(report.getFileName());
+            for (int n = 2; Files.exists(copy); n++) {
+                copy = output.resolve(report.getFileName().toString().replace(".xml", "-" + n + ".xml"));
+            }
+            Files.copy(report, copy);
+        }
+        if (!histories.isEmpty()) {
+            mergeHistories(histories, output.resolve("durations.json"));
+        }
+        if (!manifests.isEmpty()) {
+            RunManifest.merge(manifests, output.resolve("run-manifest.json"));
+        }
+        System.out.println("Merged " + results.size() + " shard result(s) and " + junitReports.size()
+                + " JUnit report(s) into " + output);
+    }
+
+    /**
+     * Sum the totals and merge suites by name, keeping each shard's &lt;test&gt; elements
+     */
+    private static void mergeResults(List<Path> files, Path target) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        Document merged = factory.newDocumentBuilder().newDocument();
+        Element root = merged.createElement("testng-results");
+        merged.appendChild(root);
+        root.appendChild(merged.createElement("reporter-output"));
+
+        long[] totals = new long[COUNTS.length];
+        Map<String, Element> suites = new LinkedHashMap<>();
+        for (Path file : files) {
+            Element shardRoot = factory.newDocumentBuilder().parse(file.toFile()).getDocumentElement();
+            for (int i = 0; i < COUNTS.length; i++) {
+                totals[i] += parseLong(shardRoot.getAttribute(COUNTS[i]));
+            }
+
+            NodeList shardSuites = shardRoot.getElementsByTagName("suite");
+            for (int i = 0; i < shardSuites.getLength(); i++) {
+                Element suite = (Element) shardSuites.item(i);
+                String name = suite.getAttribute("name");
+                System.out.println(String.format("  %-40s %-30s %8.1fs", file.getParent(), name,
+                        parseLong(suite.getAttribute("duration-ms")) / 1000.0));
+
+                Element existing = suites.get(name);
+                if (existing == null) {
+                    Element copy = (Element) merged.importNode(suite, true);
+                    root.appendChild(copy);
+                    suites.put(name, copy);
+                    continue;
+                }
+                // Shards run side by side, so the merged suite lasts as long as the slowest shard
+                existing.setAttribute("duration-ms", String.valueOf(Math.max(
+                        parseLong(existing.getAttribute("duration-ms")), parseLong(suite.getAttribute("duration-ms")))));
+                min(existing, suite, "started-at");
+                max(existing, suite, "finished-at");
+                for (Node child = suite.getFirstChild(); child != null; child = child.getNextSibling()) {
+                    if (child instanceof Element && ((Element) child).getTagName().equals("test")) {
+                        existing.appendChild(merged.importNode(child, true));
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < COUNTS.length; i++) {
+            root.setAttribute(COUNTS[i], String.valueOf(totals[i]));
+        }
+
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        transformer.transform(new DOMSource(merged), new StreamResult(target.toFile()));
+        System.out.println(String.format("Total %d, passed %d, failed %d, skipped %d",
+                totals[0], totals[1], totals[2], totals[3]));
+    }
+
+    /**
+     * Start from one shard's history and take every class and method from the shard that ran it
+     */
+    private static void mergeHistories(List<Path> files, Path target) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, Long> classes = new TreeMap<>();
+        Map<String, Long> methods = new TreeMap<>();
+        for (Path file : files) {
+            JsonNode history = mapper.readTree(file.toFile());
+            read(history.path("classes"), history.path("lastRun").path("classes"), classes, file == files.get(0));
+            read(history.path("methods"), history.path("lastRun").path("methods"), methods, file == files.get(0));
+        }
+
+        ObjectNode root = mapper.createObjectNode();
+        root.put("updated", LocalDateTime.now().toString());
+        root.set("classes", mapper.valueToTree(classes));
+        root.set("methods", mapper.valueToTree(methods));
+        mapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(target.toFile(), root);
+        System.out.println("Merged test history of " + files.size() + " shard(s) into " + target);
+    }
+
+    private static void read(JsonNode node, JsonNode measured, Map<String, Long> target, boolean all) {
+        if (all) {
+            for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> entry = it.next();
+                target.put(entry.getKey(), entry.getValue().asLong());
+            }
+        }
+        for (JsonNode key : measured) {
+            if (node.has(key.asText())) {
+                target.put(key.asText(), node.get(key.asText()).asLong());
+            }
+        }
+    }
+
+    // TestNG timestamps are ISO-like and in the same zone, so they compare as strings
+    private static void min(Element existing, Element other, String attribute) {
+        if (other.getAttribute(attribute).compareTo(existing.getAttribute(attribute)) < 0) {
+            existing.setAttribute(attribute, other.getAttribute(attribute));
+        }
+    }
+
+    private static void max(Element existing, Element other, String attribute) {
+        if (other.getAttribute(attribute).compareTo(existing.getAttribute(attribute)) > 0) {
+            existing.setAttribute(attribute, other.getAttribute(attribute));
+        }
+    }
+
+    private static long parseLong(String value) {
+        return value == null || value.isEmpty() ? 0 : Long.parseLong(value);
+    }
+
+    private static List<Path> list(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Embedded stand-in for the ADL application, so real browsers can run the suites end to end
+ * without network access and the framework's own overhead can be measured in isolation.
+ *
+ * Serves the fixture pages in src/main/resources/standin (login with both the email and the
+ * local-account forms, privacy, dashboard, impersonate, contract create/search/details) whose
+ * markup matches the LoginPageObjects, DashboardPageObjects and ContractPageObjects selectors,
+ * including the ngx-spinner/mat-progress-bar loaders shown while API calls are pending, plus a
+ * small JSON API behind them (/api/login, /api/quote, /api/contracts, /api/contracts/search) that
+ * keeps sessions and contracts in memory. Only adminusername/adminpassword log in.
+ *
+ * Every request is delayed by standin.latency.ms plus up to standin.latency.jitter.ms, and API
+ * calls additionally by standin.api.latency.ms, to mimic a remote backend.
+ */
+public class StandInServer {
+
+    private static final String SESSION_COOKIE = "ADLSESSION";
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static StandInServer instance;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final long apiLatencyMillis;
+    private final String username;
+    private final String password;
+    private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+    private final List<Map<String, String>> contracts = new CopyOnWriteArrayList<>();
+    private final AtomicInteger contractSequence = new AtomicInteger(100000);
+
+    private StandInServer(Properties prop) throws IOException {
+        this.latencyMillis = Long.parseLong(prop.getProperty("standin.latency.ms", "0"));
+        this.jitterMillis = Long.parseLong(prop.getProperty("standin.latency.jitter.ms", "0"));
+        this.apiLatencyMillis = Long.parseLong(prop.getProperty("standin.api.latency.ms", "0"));
+        this.username = prop.getProperty("adminusername", "");
+        this.password = prop.getProperty("adminpassword", "");
+
+        int port = Integer.parseInt(prop.getProperty("standin.port", "0"));
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "standin-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+
+        seedContracts();
+    }
+
+    /**
+     * Check if the stand-in server is enabled in config.properties
+     */
+    public static boolean isEnabled(Properties prop) {
+        return Boolean.parseBoolean(prop.getProperty("standin.enabled", "false"));
+    }
+
+    /**
+     * Start the server for this JVM if it is not running yet and return its base URL
+     */
+    public static synchronized String start(Properties prop) {
+        if (instance == null) {
+            try {
+                instance = new StandInServer(prop);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to start stand-in server", e);
+            }
+            instance.server.start();
+            System.out.println("Stand-in ADL server listening on " + instance.getBaseUrl());
+        }
+        return instance.getBaseUrl();
+    }
+
+    /**
+     * Stop the server if one was started
+     */
+    public static synchronized void stop() {
+        if (instance != null) {
+            instance.server.stop(0);
+            instance.executor.shutdownNow();
+            instance = null;
+        }
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            delay(path.startsWith("/api/"));
+
+            if (path.startsWith("/api/")) {
+                handleApi(exchange, path);
+            } else {
+                handlePage(exchange, path);
+            }
+        } catch (Exception e) {
+            sendJson(exchange, 500, error(e.toString()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handlePage(HttpExchange exchange, String path) throws IOException {
+        boolean authenticated = isAuthenticated(exchange);
+        switch (path) {
+            case "/":
+            case "/login":
+                if (authenticated) {
+                    redirect(exchange, "/dashboard");
+                } else {
+                    sendPage(exchange, "login.html");
+                }
+                return;
+            case "/privacy":
+                sendPage(exchange, "privacy.html");
+                return;
+            case "/dashboard":
+            case "/impersonate":
+            case "/contracts/new":
+            case "/contracts/search":
+            case "/contracts/view":
+                if (!authenticated) {
+                    redirect(exchange, "/login");
+                    return;
+                }
+                sendPage(exchange, getPageResource(path));
+                return;
+            default:
+                sendResource(exchange, path.substring(1));
+        }
+    }
+
+    private static String getPageResource(String path) {
+        switch (path) {
+            case "/contracts/new":
+                return "create.html";
+            case "/contracts/search":
+                return "search.html";
+            case "/contracts/view":
+                return "details.html";
+            case "/impersonate":
+                return "impersonate.html";
+            default:
+                return "dashboard.html";
+        }
+    }
+
+    private void handleApi(HttpExchange exchange, String path) throws IOException {
+        String method = exchange.getRequestMethod();
+
+        if ("POST".equals(method) && "/api/login".equals(path)) {
+            JsonNode body = readJson(exchange);
+            if (username.isEmpty() || !username.equals(body.path("username").asText())
+                    || !password.equals(body.path("password").asText())) {
+                sendJson(exchange, 401, error("Invalid username or password"));
+                return;
+            }
+            String session = UUID.randomUUID().toString();
+            sessions.add(session);
+            exchange.getResponseHeaders().add("Set-Cookie", SESSION_COOKIE + "=" + session + "; Path=/; HttpOnly");
+            sendJson(exchange, 200, "{}");
+            return;
+        }
+
+        if ("POST".equals(method) && "/api/logout".equals(path)) {
+            sessions.remove(getSession(exchange));
+            exchange.getResponseHeaders().add("Set-Cookie", SESSION_COOKIE + "=; Path=/; Max-Age=0");
+            sendJson(exchange, 200, "{}");
+            return;
+        }
+
+        if (!isAuthenticated(exchange)) {
+            sendJson(exchange, 401, error("Not logged in"));
+            return;
+        }
+
+        if ("POST".equals(method) && "/api/quote".equals(path)) {
+            sendJson(exchange, 200, mapper.writeValueAsString(quote(readJson(exchange))));
+        } else if ("POST".equals(method) && "/api/contracts".equals(path)) {
+            sendJson(exchange, 200, mapper.writeValueAsString(createContract(readJson(exchange))));
+        } else if ("GET".equals(method) && "/api/contracts/search".equals(path)) {
+            sendJson(exchange, 200, mapper.writeValueAsString(search(parseQuery(exchange.getRequestURI().getRawQuery()))));
+        } else if ("GET".equals(method) && path.startsWith("/api/contracts/")) {
+            String number = URLDecoder.decode(path.substring("/api/contracts/".length()), "UTF-8");
+            Map<String, String> contract = findContract(number);
+            if (contract == null) {
+                sendJson(exchange, 404, error("Contract " + number + " not found"));
+            } else {
+                sendJson(exchange, 200, mapper.writeValueAsString(contract));
+            }
+        } else {
+            sendJson(exchange, 404, error("No stand-in endpoint for " + method + " " + path));
+        }
+    }
+
+    private static Map<String, String> quote(JsonNode request) {
+        double price = parseAmount(request.path("price").asText("0"));
+        int months = (int) parseAmount(request.path("term").asText("36"));
+        double deductible = parseAmount(request.path("deductible").asText("0"));
+        double base = Math.max(price, 10000) * 0.04 + months * 12;
+        double total = Math.max(250, base - deductible * 0.5);
+
+        Map<String, String> quote = new LinkedHashMap<>();
+        quote.put("total", String.format("$%,.2f", total));
+        quote.put("breakdown", String.format("Base $%,.2f, deductible credit $%,.2f", base, deductible * 0.5));
+        quote.put("terms", request.path("program").asText("Basic Coverage") + ", " + months + " months");
+        return quote;
+    }
+
+    private Map<String, String> createContract(JsonNode request) {
+        Map<String, String> contract = newContract(
+                request.path("firstName").asText() + " " + request.path("lastName").asText(),
+                request.path("vin").asText(), "Active", LocalDate.now());
+        contracts.add(contract);
+        return contract;
+    }
+
+    private List<Map<String, String>> search(Map<String, String> query) {
+        List<Map<String, String>> results = new ArrayList<>();
+        for (Map<String, String> contract : contracts) {
+            if (matches(contract.get("vin"), query.get("vin"))
+                    && matches(contract.get("customer"), query.get("name"))
+                    && matches(contract.get("number"), query.get("number"))) {
+                results.add(contract);
+            }
+        }
+        return results;
+    }
+
+    private Map<String, String> findContract(String number) {
+        for (Map<String, String> contract : contracts) {
+            if (contract.get("number").equals(number)) {
+                return contract;
+            }
+        }
+        return null;
+    }
+
+    private void seedContracts() {
+        contracts.add(newContract("Test User", "1HGCM82633A004352", "Active", LocalDate.now().minusMonths(2)));
+        contracts.add(newContract("Jane Smith", "2T1BURHE5JC034461", "Active", LocalDate.now().minusMonths(7)));
+        contracts.add(newContract("John Doe", "3FAHP0HA6AR123456", "Cancelled", LocalDate.now().minusYears(1)));
+    }
+
+    private Map<String, String> newContract(String customer, String vin, String status, LocalDate effective) {
+        Map<String, String> contract = new LinkedHashMap<>();
+        contract.put("number", "CN" + contractSequence.incrementAndGet());
+        contract.put("customer", customer.trim());
+        contract.put("vin", vin);
+        contract.put("status", status);
+        contract.put("effectiveDate", effective.toString());
+        contract.put("expiryDate", effective.plusYears(3).toString());
+        return contract;
+    }
+
+    private static boolean matches(String value, String filter) {
+        return filter == null || filter.isEmpty() || value.toLowerCase().contains(filter.toLowerCase());
+    }
+
+    private static double parseAmount(String text) {
+        String digits = text.replaceAll("[^0-9.]", "");
+        return digits.isEmpty() ? 0 : Double.parseDouble(digits);
+    }
+
+    private void delay(boolean api) {
+        long millis = latencyMillis + (api ? apiLatencyMillis : 0)
+                + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private boolean isAuthenticated(HttpExchange exchange) {
+        String session = getSession(exchange);
+        return session != null && sessions.contains(session);
+    }
+
+    private static String getSession(HttpExchange exchange) {
+        List<String> cookieHeaders = exchange.getRequestHeaders().get("Cookie");
+        if (cookieHeaders == null) {
+            return null;
+        }
+        for (String header : cookieHeaders) {
+            for (String cookie : header.split(";")) {
+                String[] parts = cookie.trim().split("=", 2);
+                if (parts.length == 2 && SESSION_COOKIE.equals(parts[0])) {
+                    return parts[1];
+                }
+            }
+        }
+        return null;
+    }
+
+    private static JsonNode readJson(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            JsonNode body = mapper.readTree(in);
+            return body == null ? mapper.createObjectNode() : body;
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) throws IOException {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            String[] parts = pair.split("=", 2);
+            query.put(URLDecoder.decode(parts[0], "UTF-8"), parts.length > 1 ? URLDecoder.decode(parts[1], "UTF-8") : "");
+        }
+        return query;
+    }
+
+    private static String error(String message) throws IOException {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", message);
+        return mapper.writeValueAsString(error);
+    }
+
+    private static void redirect(HttpExchange exchange, String location) throws IOException {
+        exchange.getResponseHeaders().add("Location", location);
+        exchange.sendResponseHeaders(302, -1);
+    }
+
+    private static void sendPage(HttpExchange exchange, String resource) throws IOException {
+        String html = new String(readResource(resource), StandardCharsets.UTF_8)
+                .replace("<!--#header-->", new String(readResource("header.html"), StandardCharsets.UTF_8));
+        send(exchange, 200, "text/html; charset=utf-8", html.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void sendResource(HttpExchange exchange, String resource) throws IOException {
+        byte[] body = resource.contains("..") ? null : readResource(resource);
+        if (body == null) {
+            send(exchange, 404, "text/plain", ("Not found: " + resource).getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        send(exchange, 200, getContentType(resource), body);
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        send(exchange, status, "application/json", json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] readResource(String resource) throws IOException {
+        try (InputStream in = StandInServer.class.getClassLoader().getResourceAsStream("standin/" + resource)) {
+            if (in == null) {
+                return null;
+            }
+            return in.readAllBytes();
+        }
+    }
+
+    private static String getContentType(String resource) {
+        if (resource.endsWith(".js")) {
+            return "application/javascript";
+        } else if (resource.endsWith(".css")) {
+            return "text/css";
+        } else if (resource.endsWith(".svg")) {
+            return "image/svg+xml";
+        } else if (resource.endsWith(".html")) {
+            return "text/html; charset=utf-8";
+        }
+        return "application/octet-stream";
+    }
+}
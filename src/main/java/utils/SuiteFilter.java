@@ -0,0 +1,120 @@
+package utils;
+
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+/**
+ * Trims suites down to selected test methods, for the listeners that run part of a suite
+ * (RunManifest, TestImpact, TestBudget).
+ */
+class SuiteFilter {
+
+    /**
+     * Keep only the methods chosen by selection (test name, class name) -&gt; method name to data
+     * provider rows (all rows when empty), plus what they depend on. Classes and &lt;test&gt; tags
+     * left without methods are dropped, and methods a class already excluded in the XML stay
+     * excluded. Returns the number of methods kept.
+     */
+    static int retain(List<XmlSuite> suites, BiFunction<String, String, Map<String, Set<Integer>>> selection) {
+        int methods = 0;
+        for (XmlSuite suite : suites) {
+            List<XmlTest> tests = new ArrayList<>();
+            for (XmlTest test : suite.getTests()) {
+                List<XmlClass> classes = new ArrayList<>();
+                for (XmlClass xmlClass : test.getXmlClasses()) {
+                    Set<String> declared = new LinkedHashSet<>();
+                    for (XmlInclude include : xmlClass.getIncludedMethods()) {
+                        declared.add(include.getName());
+                    }
+                    Map<String, Set<Integer>> rows = new LinkedHashMap<>(selection.apply(test.getName(), xmlClass.getName()));
+                    if (!declared.isEmpty()) {
+                        rows.keySet().retainAll(declared);
+                    }
+                    List<XmlInclude> includes = includesWithDependencies(xmlClass.getName(), rows);
+                    if (includes.isEmpty()) {
+                        continue;
+                    }
+                    xmlClass.setIncludedMethods(includes);
+                    xmlClass.setIndex(classes.size());
+                    classes.add(xmlClass);
+                    methods += includes.size();
+                }
+                test.setXmlClasses(classes);
+                if (!classes.isEmpty()) {
+                    tests.add(test);
+                }
+            }
+            suite.setTests(tests);
+        }
+        return methods;
+    }
+
+    /**
+     * Includes for the given methods (limited to the given data provider rows, all rows when
+     * empty) plus, as whole methods, everything they depend on through dependsOnMethods and
+     * dependsOnGroups. Empty when no methods are given.
+     */
+    private static List<XmlInclude> includesWithDependencies(String className, Map<String, Set<Integer>> rows) {
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<String, Method> testMethods = new LinkedHashMap<>();
+        try {
+            for (Method method : Class.forName(className).getMethods()) {
+                if (method.isAnnotationPresent(Test.class)) {
+                    testMethods.put(method.getName(), method);
+                }
+            }
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("Test class not found: " + className, e);
+        }
+        Set<String> dependencies = new LinkedHashSet<>();
+        Deque<String> pendingMethods = new ArrayDeque<>(rows.keySet());
+        while (!pendingMethods.isEmpty()) {
+            Method method = testMethods.get(pendingMethods.pop());
+            if (method == null) {
+                continue;
+            }
+            Test test = method.getAnnotation(Test.class);
+            List<String> needed = new ArrayList<>(Arrays.asList(test.dependsOnMethods()));
+            for (Method candidate : testMethods.values()) {
+                for (String group : candidate.getAnnotation(Test.class).groups()) {
+                    if (Arrays.asList(test.dependsOnGroups()).contains(group)) {
+                        needed.add(candidate.getName());
+                    }
+                }
+            }
+            for (String name : needed) {
+                name = name.substring(name.lastIndexOf('.') + 1);
+                if (!rows.containsKey(name) && dependencies.add(name)) {
+                    pendingMethods.push(name);
+                }
+            }
+        }
+
+        List<XmlInclude> includes = new ArrayList<>();
+        for (Map.Entry<String, Set<Integer>> entry : rows.entrySet()) {
+            includes.add(new XmlInclude(entry.getKey(), new ArrayList<>(entry.getValue()), includes.size()));
+        }
+        for (String dependency : dependencies) {
+            includes.add(new XmlInclude(dependency, includes.size()));
+        }
+        return includes;
+    }
+}
@@ -0,0 +1,161 @@
+package utils;
+
+import org.testng.IAlterSuiteListener;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Orders parallel work longest first using the durations in TestHistory.
+ *
+ * With parallel="classes" the test classes are handed to the thread pool in order, each going to
+ * the next free thread. Starting with the longest classes (LPT scheduling) keeps a long class from
+ * starting last and running on alone while the other threads sit idle. The same applies to the
+ * &lt;test&gt; tags of a parallel="tests" suite. The order inside a class is left alone.
+ *
+ * Classes without history are estimated from their methods' durations (see
+ * TestHistory.History.estimateClassMillis). The expected per-thread plan is printed before the suite
+ * starts. Register in the suite XML next to TestListener; disable with schedule.enabled=false.
+ */
+public class SuiteScheduler implements IAlterSuiteListener, IMethodInterceptor {
+
+    // Static because TestNG may create separate instances for the alter and intercept hooks
+    private static volatile TestHistory.History history;
+    private static final Map<String, Long> estimates = new ConcurrentHashMap<>();
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        BaseClass.loadProperties();
+        if (!Boolean.parseBoolean(BaseClass.prop.getProperty("schedule.enabled", "true"))) {
+            return;
+        }
+
+        history = TestHistory.load();
+        if (history.isEmpty()) {
+            System.out.println("No test duration history yet - running classes in declared order");
+            return;
+        }
+
+        for (XmlSuite suite : suites) {
+            if (suite.getParallel() == XmlSuite.ParallelMode.TESTS) {
+                List<XmlTest> tests = new ArrayList<>(suite.getTests());
+                tests.sort(Comparator.comparingLong(this::estimateTest).reversed());
+                printPlan(suite.getName(), suite.getTests(), tests, this::estimateTest, XmlTest::getName, suite.getThreadCount());
+                suite.setTests(tests);
+            }
+            for (XmlTest test : suite.getTests()) {
+                if (test.getParallel() != XmlSuite.ParallelMode.CLASSES) {
+                    continue;
+                }
+                List<XmlClass> classes = new ArrayList<>(test.getXmlClasses());
+                classes.sort(Comparator.comparingLong((XmlClass xmlClass) -> estimate(xmlClass.getName())).reversed());
+                printPlan(test.getName(), test.getXmlClasses(), classes, xmlClass -> estimate(xmlClass.getName()),
+                        SuiteScheduler::simpleName, test.getThreadCount());
+                for (int i = 0; i < classes.size(); i++) {
+                    classes.get(i).setIndex(i);
+                }
+                test.setXmlClasses(classes);
+            }
+        }
+    }
+
+    /**
+     * Hand the methods of longer classes to the thread pool first, keeping each class's own order
+     */
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (history == null || context.getCurrentXmlTest().getParallel() != XmlSuite.ParallelMode.CLASSES) {
+            return methods;
+        }
+        List<IMethodInstance> ordered = new ArrayList<>(methods);
+        ordered.sort(Comparator.comparingLong((IMethodInstance method) ->
+                estimate(method.getMethod().getRealClass().getName())).reversed());
+        return ordered;
+    }
+
+    private long estimateTest(XmlTest test) {
+        long total = 0;
+        for (XmlClass xmlClass : test.getXmlClasses()) {
+            total += estimate(xmlClass.getName());
+        }
+        return total;
+    }
+
+    /**
+     * Expected duration of a class in milliseconds
+     */
+    private long estimate(String className) {
+        return estimates.computeIfAbsent(className, history::estimateClassMillis);
+    }
+
+    /**
+     * Print the expected per-thread assignment of the new order next to the declared one
+     */
+    private <T> void printPlan(String name, List<T> declared, List<T> ordered,
+                               ToLongFunction<T> estimate, Function<T, String> label, int threads) {
+        if (ordered.size() < 2 || threads < 1) {
+            return;
+        }
+        List<List<T>> lanes = new ArrayList<>();
+        long[] loads = new long[threads];
+        for (int i = 0; i < threads; i++) {
+            lanes.add(new ArrayList<>());
+        }
+        for (T item : ordered) {
+            int lane = leastLoaded(loads);
+            lanes.get(lane).add(item);
+            loads[lane] += estimate.applyAsLong(item);
+        }
+
+        long[] declaredLoads = new long[threads];
+        for (T item : declared) {
+            declaredLoads[leastLoaded(declaredLoads)] += estimate.applyAsLong(item);
+        }
+
+        System.out.println("Schedule for " + name + " on " + threads + " thread(s), longest first:");
+        for (int i = 0; i < threads; i++) {
+            StringBuilder line = new StringBuilder();
+            for (T item : lanes.get(i)) {
+                line.append(line.length() == 0 ? "" : ", ").append(label.apply(item))
+                        .append(String.format(" (%.1fs)", estimate.applyAsLong(item) / 1000.0));
+            }
+            System.out.println(String.format("  thread %d: %7.1fs  %s", i + 1, loads[i] / 1000.0, line));
+        }
+        System.out.println(String.format("  expected finish %.1fs (declared order: %.1fs)",
+                max(loads) / 1000.0, max(declaredLoads) / 1000.0));
+    }
+
+    private static int leastLoaded(long[] loads) {
+        int lane = 0;
+        for (int i = 1; i < loads.length; i++) {
+            if (loads[i] < loads[lane]) {
+                lane = i;
+            }
+        }
+        return lane;
+    }
+
+    private static long max(long[] values) {
+        long max = 0;
+        for (long value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    private static String simpleName(XmlClass xmlClass) {
+        String name = xmlClass.getName();
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+}
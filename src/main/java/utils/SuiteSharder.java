@@ -0,0 +1,109 @@
+package utils;
+
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs one shard of the suite when started with -Dshard.index=I -Dshard.count=N (I from 0 to N-1).
+ *
+ * Every test class of the suite is assigned to exactly one shard, balanced by the durations in
+ * TestHistory: classes are taken longest first and each goes to the shard with the least work so
+ * far, ties broken by class name and shard number. The split only depends on the suite and the
+ * history file, so every shard computes the same partition without talking to the others - all
+ * jobs must start from the same history file. Classes are the unit because they share a browser
+ * and @BeforeClass state. &lt;test&gt; tags left without classes are dropped.
+ *
+ * ShardMerger combines the reports of all shards afterwards. Register in the suite XML before
+ * SuiteScheduler so the schedule is planned for this shard's classes only, and after RunManifest,
+ * TestImpact and TestBudget, which trim the suite the same way in every shard as long as the shards
+ * share their inputs (with -Drerun=failed, the run manifest merged by ShardMerger).
+ */
+public class SuiteSharder implements IAlterSuiteListener {
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        int count = Integer.getInteger("shard.count", 1);
+        int index = Integer.getInteger("shard.index", 0);
+        if (count <= 1) {
+            return;
+        }
+        if (index < 0 || index >= count) {
+            throw new RuntimeException("shard.index must be between 0 and " + (count - 1) + " but was " + index);
+        }
+
+        BaseClass.loadProperties();
+        TestHistory.History history = TestHistory.load();
+        for (XmlSuite suite : suites) {
+            Map<XmlClass, Integer> shards = partition(suite, count, history);
+
+            List<XmlTest> tests = new ArrayList<>();
+            int kept = 0;
+            for (XmlTest test : suite.getTests()) {
+                List<XmlClass> classes = new ArrayList<>();
+                for (XmlClass xmlClass : test.getXmlClasses()) {
+                    if (shards.get(xmlClass) == index) {
+                        classes.add(xmlClass);
+                    }
+                }
+                for (int i = 0; i < classes.size(); i++) {
+                    classes.get(i).setIndex(i);
+                }
+                test.setXmlClasses(classes);
+                if (!classes.isEmpty()) {
+                    tests.add(test);
+                    kept += classes.size();
+                }
+            }
+            suite.setTests(tests);
+            System.out.println("Shard " + index + " of " + count + " for " + suite.getName() + ": "
+                    + kept + " of " + shards.size() + " classes");
+        }
+    }
+
+    /**
+     * Assign every class of the suite to a shard, longest first onto the least loaded shard
+     */
+    static Map<XmlClass, Integer> partition(XmlSuite suite, int count, TestHistory.History history) {
+        List<XmlClass> classes = new ArrayList<>();
+        Map<XmlClass, Long> estimates = new IdentityHashMap<>();
+        Map<XmlClass, String> keys = new IdentityHashMap<>();
+        for (XmlTest test : suite.getTests()) {
+            for (XmlClass xmlClass : test.getXmlClasses()) {
+                classes.add(xmlClass);
+                estimates.put(xmlClass, history.estimateClassMillis(xmlClass.getName()));
+                // The same class may be listed in more than one <test>
+                keys.put(xmlClass, xmlClass.getName() + "@" + test.getName());
+            }
+        }
+        classes.sort(Comparator.comparingLong((XmlClass xmlClass) -> estimates.get(xmlClass)).reversed()
+                .thenComparing(keys::get));
+
+        Map<XmlClass, Integer> shards = new IdentityHashMap<>();
+        long[] loads = new long[count];
+        for (XmlClass xmlClass : classes) {
+            int shard = 0;
+            for (int i = 1; i < count; i++) {
+                if (loads[i] < loads[shard]) {
+                    shard = i;
+                }
+            }
+            shards.put(xmlClass, shard);
+            loads[shard] += estimates.get(xmlClass);
+        }
+
+        StringBuilder plan = new StringBuilder("Shard estimates for " + suite.getName() + ":");
+        for (int i = 0; i < count; i++) {
+            plan.append(String.format(" %d=%.1fs", i, loads[i] / 1000.0));
+        }
+        System.out.println(plan);
+        return shards;
+    }
+}
@@ -0,0 +1,198 @@
+package utils;
+
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.options.WaitForSelectorState;
+import pageObjects.DashboardPageObjects;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Condition-based synchronization used in place of fixed sleeps.
+ *
+ * An action is "ready" when the ngx-spinner/mat-progress-bar loaders are gone, Angular reports
+ * itself stable and the DOM has stopped mutating for a short quiet window. Every wait records how
+ * long it actually took next to the fixed sleep it replaced, and printReport() summarises the
+ * savings at the end of the suite.
+ */
+public class SyncUtils {
+
+    private static final String[] LOADER_SELECTORS = {
+        DashboardPageObjects.LOADING_SPINNER,
+        DashboardPageObjects.PROGRESS_BAR
+    };
+
+    private static final String ANGULAR_STABLE_SCRIPT =
+        "() => typeof window.getAllAngularTestabilities !== 'function'"
+        + " || window.getAllAngularTestabilities().every(t => t.isStable())";
+
+    private static final String DOM_QUIET_SCRIPT =
+        "([quietMs, timeoutMs]) => new Promise(resolve => {"
+        + "  let timer;"
+        + "  const observer = new MutationObserver(() => { clearTimeout(timer); timer = setTimeout(() => done(true), quietMs); });"
+        + "  const deadline = setTimeout(() => done(false), timeoutMs);"
+        + "  function done(quiet) { observer.disconnect(); clearTimeout(timer); clearTimeout(deadline); resolve(quiet); }"
+        + "  observer.observe(document, { subtree: true, childList: true, attributes: true, characterData: true });"
+        + "  timer = setTimeout(() => done(true), quietMs);"
+        + "})";
+
+    private static final Map<String, WaitStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Wait until the application is ready: loaders hidden, Angular stable and DOM quiet
+     */
+    public static void waitForAppReady(Page page, String label, int legacyMillis) {
+        long start = System.nanoTime();
+        settle(page, getMaxWait(legacyMillis));
+        record(label, legacyMillis, start);
+    }
+
+    /**
+     * Wait for loaders, Angular and the DOM to settle without recording the wait
+     */
+    public static void settle(Page page) {
+        settle(page, getMaxWait());
+    }
+
+    private static void settle(Page page, long timeout) {
+        if (page == null) {
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        waitForLoadersHidden(page, timeout);
+        waitForAngularStable(page, remaining(start, timeout));
+        waitForDomQuiet(page, Long.parseLong(getProperty("sync.quiet.ms", "300")), remaining(start, timeout));
+    }
+
+    /**
+     * Wait until an element reaches the given state, then until the application is ready
+     */
+    public static void waitForElementState(Page page, String label, int legacyMillis,
+                                           String selector, WaitForSelectorState state) {
+        long start = System.nanoTime();
+        long timeout = getMaxWait(legacyMillis);
+
+        try {
+            page.waitForSelector(selector, new Page.WaitForSelectorOptions()
+                    .setState(state)
+                    .setTimeout(timeout));
+        } catch (Exception e) {
+            System.out.println("Sync: " + selector + " did not become " + state + " within " + timeout + "ms");
+        }
+        waitForLoadersHidden(page, remaining(start, timeout));
+
+        record(label, legacyMillis, start);
+    }
+
+    /**
+     * Wait until Angular has no pending macro tasks or HTTP requests. Returns true if it settled.
+     */
+    public static boolean waitForAngularStable(Page page, long timeoutMillis) {
+        try {
+            page.waitForFunction(ANGULAR_STABLE_SCRIPT, null, new Page.WaitForFunctionOptions()
+                    .setTimeout(Math.max(1, timeoutMillis)));
+            return true;
+        } catch (Exception e) {
+            System.out.println("Sync: Angular did not become stable within " + timeoutMillis + "ms");
+            return false;
+        }
+    }
+
+    /**
+     * Wait until the spinner and progress bar are no longer visible, all within timeoutMillis.
+     * Returns true if they cleared.
+     */
+    public static boolean waitForLoadersHidden(Page page, long timeoutMillis) {
+        long start = System.nanoTime();
+        boolean cleared = true;
+        for (String loader : LOADER_SELECTORS) {
+            try {
+                page.waitForSelector(loader, new Page.WaitForSelectorOptions()
+                        .setState(WaitForSelectorState.HIDDEN)
+                        .setTimeout(remaining(start, timeoutMillis)));
+            } catch (Exception e) {
+                System.out.println("Sync: " + loader + " still visible after " + timeoutMillis + "ms");
+                cleared = false;
+            }
+        }
+        return cleared;
+    }
+
+    /**
+     * Wait until the DOM has gone quietMillis without mutations. Returns true if it went quiet.
+     */
+    public static boolean waitForDomQuiet(Page page, long quietMillis, long timeoutMillis) {
+        try {
+            Object quiet = page.evaluate(DOM_QUIET_SCRIPT, new Object[] {quietMillis, Math.max(quietMillis, timeoutMillis)});
+            return Boolean.TRUE.equals(quiet);
+        } catch (Exception e) {
+            System.out.println("Sync: DOM quiescence check failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Print the time each synchronization point took compared with the fixed sleep it replaced
+     */
+    public static void printReport() {
+        if (stats.isEmpty()) {
+            return;
+        }
+
+        long totalLegacy = 0;
+        long totalActual = 0;
+        System.out.println("========== Synchronization report ==========");
+        System.out.println(String.format("%-36s %6s %12s %12s %12s", "Wait", "Calls", "Fixed (ms)", "Actual (ms)", "Saved (ms)"));
+        for (Map.Entry<String, WaitStats> entry : new TreeMap<>(stats).entrySet()) {
+            WaitStats waitStats = entry.getValue();
+            long legacy = waitStats.legacyMillis.sum();
+            long actual = waitStats.actualMillis.sum();
+            totalLegacy += legacy;
+            totalActual += actual;
+            System.out.println(String.format("%-36s %6d %12d %12d %12d",
+                    entry.getKey(), waitStats.calls.sum(), legacy, actual, legacy - actual));
+        }
+        System.out.println(String.format("%-36s %6s %12d %12d %12d", "Total", "", totalLegacy, totalActual, totalLegacy - totalActual));
+        System.out.println("=============================================");
+    }
+
+    private static void record(String label, int legacyMillis, long startNanos) {
+        long actualMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        WaitStats waitStats = stats.computeIfAbsent(label, k -> new WaitStats());
+        waitStats.calls.increment();
+        waitStats.legacyMillis.add(legacyMillis);
+        waitStats.actualMillis.add(actualMillis);
+    }
+
+    private static long remaining(long startNanos, long timeoutMillis) {
+        return Math.max(1, timeoutMillis - (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    private static long getMaxWait() {
+        return Long.parseLong(getProperty("sync.max.wait.ms", "10000"));
+    }
+
+    /**
+     * Upper bound for a wait replacing a fixed sleep: sync.wait.factor times that sleep, at least
+     * twice the quiet window and at most sync.max.wait.ms
+     */
+    private static long getMaxWait(int legacyMillis) {
+        long factor = Long.parseLong(getProperty("sync.wait.factor", "3"));
+        long floor = 2 * Long.parseLong(getProperty("sync.quiet.ms", "300"));
+        return Math.min(getMaxWait(), Math.max(floor, factor * legacyMillis));
+    }
+
+    private static String getProperty(String key, String defaultValue) {
+        return BaseClass.prop == null ? defaultValue : BaseClass.prop.getProperty(key, defaultValue);
+    }
+
+    private static class WaitStats {
+        final LongAdder calls = new LongAdder();
+        final LongAdder legacyMillis = new LongAdder();
+        final LongAdder actualMillis = new LongAdder();
+    }
+}
@@ -0,0 +1,306 @@
+package utils;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.testng.IAlterSuiteListener;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Picks the most valuable tests that fit a wall-clock budget: -Dbudget.minutes=10
+ * [-Dbudget.workers=3, defaulting to the suite's thread-count, or 1 when it does not run in parallel;
+ * under the WorkCoordinator, to distributed.workers].
+ *
+ * Each test method is worth its weight times 1 + budget.failure.weight x its failure rate. The weight
+ * comes from its @Test priority within the class: budget.priority.weight for the class's first test
+ * (the core flow the later ones build on), falling linearly to 1 for its last; a test in a group of
+ * budget.group.weights (e.g. smoke:5) gets that weight when higher. Failure rates count failures
+ * and flaky passes from RetryAnalyzer's history; tests without that history count as failing half
+ * the time. Durations come from TestHistory. A 0/1 knapsack then picks the set with the highest
+ * total value whose durations fit budget x workers; when the classes of that set (including each
+ * class's setup time) do not fit on the workers within the budget, the capacity is lowered and the
+ * knapsack repeated. The selection and every test left out are printed.
+ *
+ * Register in the suite XML after TestImpact (so the budget applies to the impacted tests) and
+ * before SuiteSharder.
+ */
+public class TestBudget implements IAlterSuiteListener {
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        // Distributed workers run the suite the WorkCoordinator already budgeted
+        if (!WorkCoordinator.isWorker()) {
+            alter(suites, 0);
+        }
+    }
+
+    /**
+     * Apply the budget for the given number of workers, or for the suite's own threads when 0
+     */
+    static void alter(List<XmlSuite> suites, int defaultWorkers) {
+        String minutes = System.getProperty("budget.minutes", "");
+        if (minutes.isEmpty()) {
+            return;
+        }
+        BaseClass.loadProperties();
+        long budget = Math.round(Double.parseDouble(minutes) * 60_000);
+        TestHistory.History history = TestHistory.load();
+        Map<String, ObjectNode> failures = RetryAnalyzer.loadHistory();
+
+        for (XmlSuite suite : suites) {
+            // thread-count only applies when the suite runs in parallel; a <test> overrides the suite's mode
+            boolean parallel = false;
+            for (XmlTest test : suite.getTests()) {
+                parallel |= test.getParallel() != null && test.getParallel().isParallel();
+            }
+            int workers = Integer.getInteger("budget.workers",
+                    defaultWorkers > 0 ? defaultWorkers : parallel ? Math.max(1, suite.getThreadCount()) : 1);
+            List<Item> items = items(suite, history, failures);
+            if (items.isEmpty()) {
+                continue;
+            }
+
+            List<Item> selected = select(items, budget, workers, history);
+            Map<String, Map<String, Set<Integer>>> byClass = new HashMap<>();
+            for (Item item : selected) {
+                byClass.computeIfAbsent(item.className, k -> new LinkedHashMap<>()).put(item.method, item.rows);
+            }
+            report(items, selected, budget, workers, history);
+            SuiteFilter.retain(Collections.singletonList(suite), (testName, className) ->
+                    byClass.getOrDefault(className, new LinkedHashMap<>()));
+        }
+    }
+
+    /**
+     * Knapsack on total work, shrinking the capacity until the selected classes fit the workers
+     */
+    private static List<Item> select(List<Item> items, long budget, int workers, TestHistory.History history) {
+        long capacity = budget * workers;
+        List<Item> selected = new ArrayList<>();
+        for (int round = 0; round < 20 && capacity > 0; round++) {
+            selected = knapsack(items, capacity);
+            long makespan = makespan(selected, workers, history);
+            if (makespan <= budget) {
+                return selected;
+            }
+            capacity -= Math.max(makespan - budget, capacity / 20);
+        }
+        return capacity > 0 ? selected : new ArrayList<>();
+    }
+
+    /**
+     * 0/1 knapsack over method durations; weights are scaled to at most about 2000 units
+     */
+    private static List<Item> knapsack(List<Item> items, long capacity) {
+        long unit = Math.max(100, (capacity + 1999) / 2000);
+        int slots = (int) (capacity / unit);
+        double[] best = new double[slots + 1];
+        boolean[][] taken = new boolean[items.size()][slots + 1];
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            int weight = (int) Math.max(1, (item.millis + unit - 1) / unit);
+            for (int c = slots; c >= weight; c--) {
+                if (best[c - weight] + item.value > best[c]) {
+                    best[c] = best[c - weight] + item.value;
+                    taken[i][c] = true;
+                }
+            }
+        }
+
+        List<Item> selected = new ArrayList<>();
+        for (int i = items.size() - 1, c = slots; i >= 0; i--) {
+            if (taken[i][c]) {
+                selected.add(0, items.get(i));
+                c -= (int) Math.max(1, (items.get(i).millis + unit - 1) / unit);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Finish time of the selected classes handed longest first to the least loaded worker
+     */
+    private static long makespan(List<Item> selected, int workers, TestHistory.History history) {
+        Map<String, Long> classes = new HashMap<>();
+        for (Item item : selected) {
+            classes.merge(item.className, item.millis, Long::sum);
+        }
+        List<Long> loads = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : classes.entrySet()) {
+            loads.add(entry.getValue() + setupMillis(entry.getKey(), history));
+        }
+        loads.sort(Comparator.reverseOrder());
+        long[] lanes = new long[workers];
+        for (long load : loads) {
+            int lane = 0;
+            for (int i = 1; i < workers; i++) {
+                if (lanes[i] < lanes[lane]) {
+                    lane = i;
+                }
+            }
+            lanes[lane] += load;
+        }
+        long makespan = 0;
+        for (long lane : lanes) {
+            makespan = Math.max(makespan, lane);
+        }
+        return makespan;
+    }
+
+    /**
+     * Time a class spends outside its test methods (browser and @BeforeClass setup)
+     */
+    private static long setupMillis(String className, TestHistory.History history) {
+        Long classMillis = history.getClassMillis(className);
+        if (classMillis == null) {
+            return 0;
+        }
+        long methods = 0;
+        try {
+            for (Method method : Class.forName(className).getMethods()) {
+                Long millis = method.isAnnotationPresent(Test.class) ? history.getMethodMillis(className, method.getName()) : null;
+                methods += millis == null ? 0 : millis;
+            }
+        } catch (ClassNotFoundException e) {
+            return 0;
+        }
+        return Math.max(0, classMillis - methods);
+    }
+
+    /**
+     * Candidate test methods of the suite (those a class includes, or all its @Test methods)
+     */
+    private static List<Item> items(XmlSuite suite, TestHistory.History history, Map<String, ObjectNode> failures) {
+        Map<String, Double> groupWeights = new HashMap<>();
+        for (String entry : BaseClass.prop.getProperty("budget.group.weights", "").split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length == 2) {
+                groupWeights.put(parts[0].trim(), Double.parseDouble(parts[1].trim()));
+            }
+        }
+        double priorityWeight = Double.parseDouble(BaseClass.prop.getProperty("budget.priority.weight", "3"));
+        double failureWeight = Double.parseDouble(BaseClass.prop.getProperty("budget.failure.weight", "2"));
+        long average = history.isEmpty() ? 1000 : history.getAverageMethodMillis();
+
+        Map<String, Item> items = new LinkedHashMap<>();
+        for (XmlTest test : suite.getTests()) {
+            for (XmlClass xmlClass : test.getXmlClasses()) {
+                Map<String, Set<Integer>> included = new LinkedHashMap<>();
+                for (XmlInclude include : xmlClass.getIncludedMethods()) {
+                    included.put(include.getName(), new TreeSet<>(include.getInvocationNumbers()));
+                }
+                Method[] methods;
+                try {
+                    methods = Class.forName(xmlClass.getName()).getMethods();
+                } catch (ClassNotFoundException e) {
+                    throw new RuntimeException("Test class not found: " + xmlClass.getName(), e);
+                }
+                int first = Integer.MAX_VALUE;
+                int last = Integer.MIN_VALUE;
+                for (Method method : methods) {
+                    Test annotation = method.getAnnotation(Test.class);
+                    if (annotation != null) {
+                        first = Math.min(first, annotation.priority());
+                        last = Math.max(last, annotation.priority());
+                    }
+                }
+                for (Method method : methods) {
+                    Test annotation = method.getAnnotation(Test.class);
+                    if (annotation == null || (!included.isEmpty() && !included.containsKey(method.getName()))
+                            || xmlClass.getExcludedMethods().contains(method.getName())) {
+                        continue;
+                    }
+                    Item item = new Item(xmlClass.getName(), method.getName(),
+                            included.getOrDefault(method.getName(), new TreeSet<>()));
+                    Long millis = history.getMethodMillis(item.className, item.method);
+                    item.millis = millis != null ? millis : average;
+
+                    double weight = last > first
+                            ? 1 + (priorityWeight - 1) * (last - annotation.priority()) / (last - first)
+                            : 1;
+                    for (String group : annotation.groups()) {
+                        weight = Math.max(weight, groupWeights.getOrDefault(group, 1.0));
+                    }
+                    item.failureRate = failureRate(failures, item.className + "." + item.method);
+                    item.value = weight * (1 + failureWeight * item.failureRate);
+                    items.putIfAbsent(item.className + "#" + item.method, item);
+                }
+            }
+        }
+        return new ArrayList<>(items.values());
+    }
+
+    /**
+     * Share of runs a test failed or only passed after a retry, summed over its data provider rows
+     */
+    private static double failureRate(Map<String, ObjectNode> failures, String qualifiedName) {
+        int runs = 0;
+        int failed = 0;
+        for (Map.Entry<String, ObjectNode> entry : failures.entrySet()) {
+            if (entry.getKey().equals(qualifiedName) || entry.getKey().startsWith(qualifiedName + "#")) {
+                runs += entry.getValue().path("runs").asInt();
+                failed += entry.getValue().path("failed").asInt() + entry.getValue().path("flaky").asInt();
+            }
+        }
+        return runs == 0 ? 0.5 : (double) failed / runs;
+    }
+
+    private static void report(List<Item> items, List<Item> selected, long budget, int workers, TestHistory.History history) {
+        double totalValue = 0;
+        double selectedValue = 0;
+        for (Item item : items) {
+            totalValue += item.value;
+        }
+        for (Item item : selected) {
+            selectedValue += item.value;
+        }
+        System.out.println(String.format("Time budget %.1f min on %d worker(s): %d of %d tests selected, "
+                        + "expected %.1f min, %.0f%% of the total value",
+                budget / 60_000.0, workers, selected.size(), items.size(),
+                makespan(selected, workers, history) / 60_000.0, totalValue == 0 ? 0 : 100 * selectedValue / totalValue));
+
+        List<Item> leftOut = new ArrayList<>(items);
+        leftOut.removeAll(selected);
+        if (leftOut.isEmpty()) {
+            return;
+        }
+        leftOut.sort(Comparator.comparingDouble((Item item) -> item.value).reversed());
+        System.out.println("Left out:");
+        for (Item item : leftOut) {
+            System.out.println(String.format("  %-60s value %5.2f  failure rate %3.0f%%  %7.1fs",
+                    item.className.substring(item.className.lastIndexOf('.') + 1) + "." + item.method,
+                    item.value, item.failureRate * 100, item.millis / 1000.0));
+        }
+    }
+
+    /**
+     * A test method with its expected duration and value
+     */
+    private static class Item {
+        private final String className;
+        private final String method;
+        private final Set<Integer> rows;
+        private long millis;
+        private double failureRate;
+        private double value;
+
+        Item(String className, String method, Set<Integer> rows) {
+            this.className = className;
+            this.method = method;
+            this.rows = rows;
+        }
+    }
+}
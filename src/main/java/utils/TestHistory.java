@@ -0,0 +1,226 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.testng.ITestResult;
+
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-method and per-class durations of earlier runs, used by SuiteScheduler.
+ *
+ * Methods are keyed by "package.Class#method" and hold the summed time of all their invocations
+ * (data provider rows included). Classes hold the wall-clock span from their first test starting
+ * to their last test finishing, so browser setup between tests is counted too. Each save()
+ * blends the durations of the current run into the file (schedule.history.file) as an
+ * exponential moving average weighted by schedule.history.weight, so one slow run does not
+ * reorder the suite on its own. The file's lastRun lists every class and method this JVM has
+ * saved, across all the <test> tags of the suite.
+ */
+public class TestHistory {
+
+    private static final Map<String, LongAdder> methodMillis = new ConcurrentHashMap<>();
+    private static final Map<String, long[]> classSpans = new ConcurrentHashMap<>();
+    private static final Object lock = new Object();
+    // Everything saved by this JVM, as each <test> of a suite saves only its own durations
+    private static final Set<String> savedClasses = new TreeSet<>();
+    private static final Set<String> savedMethods = new TreeSet<>();
+    // Assumed duration of a test method when there is no history at all
+    private static final long DEFAULT_METHOD_MILLIS = 1000;
+
+    /**
+     * Add a finished test invocation to the current run
+     */
+    public static void record(ITestResult result) {
+        record(result.getTestClass().getRealClass().getName(), result.getMethod().getMethodName(),
+                result.getStartMillis(), result.getEndMillis());
+    }
+
+    /**
+     * Add a finished test invocation reported by a distributed worker
+     */
+    public static void record(String className, String methodName, long start, long end) {
+        if (end <= start) {
+            return;
+        }
+
+        methodMillis.computeIfAbsent(className + "#" + methodName, k -> new LongAdder()).add(end - start);
+
+        long[] span = classSpans.computeIfAbsent(className, k -> new long[] {Long.MAX_VALUE, 0});
+        synchronized (span) {
+            span[0] = Math.min(span[0], start);
+            span[1] = Math.max(span[1], end);
+        }
+    }
+
+    /**
+     * Merge the durations recorded since the last save into the history file
+     */
+    public static void save() {
+        synchronized (lock) {
+            // Workers stream their durations to the WorkCoordinator, which saves them once
+            if (methodMillis.isEmpty() || WorkCoordinator.isWorker()) {
+                return;
+            }
+
+            Map<String, Long> methods = drain(methodMillis);
+            Map<String, Long> classes = new TreeMap<>();
+            for (String className : classSpans.keySet()) {
+                long[] span = classSpans.remove(className);
+                classes.put(className, span[1] - span[0]);
+            }
+
+            History history = load();
+            double weight = Double.parseDouble(getProperty("schedule.history.weight", "0.5"));
+            history.merge(history.methods, methods, weight);
+            history.merge(history.classes, classes, weight);
+            savedClasses.addAll(classes.keySet());
+            savedMethods.addAll(methods.keySet());
+
+            Path file = getFile();
+            try {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                ObjectNode root = new ObjectMapper().createObjectNode();
+                root.put("updated", LocalDateTime.now().toString());
+                root.set("classes", new ObjectMapper().valueToTree(history.classes));
+                root.set("methods", new ObjectMapper().valueToTree(history.methods));
+                // What this run measured, so ShardMerger can tell fresh entries from inherited ones
+                ObjectNode lastRun = root.putObject("lastRun");
+                lastRun.set("classes", new ObjectMapper().valueToTree(savedClasses));
+                lastRun.set("methods", new ObjectMapper().valueToTree(savedMethods));
+                new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), root);
+                System.out.println("Test durations saved to " + file);
+            } catch (IOException e) {
+                System.out.println("Failed to save test durations: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Read the history file (empty when there is none yet)
+     */
+    public static History load() {
+        History history = new History();
+        Path file = getFile();
+        if (!Files.exists(file)) {
+            return history;
+        }
+        try {
+            JsonNode root = new ObjectMapper().readTree(file.toFile());
+            read(root.path("classes"), history.classes);
+            read(root.path("methods"), history.methods);
+        } catch (IOException e) {
+            System.out.println("Ignoring unreadable test history " + file + ": " + e.getMessage());
+        }
+        return history;
+    }
+
+    private static Map<String, Long> drain(Map<String, LongAdder> source) {
+        Map<String, Long> drained = new TreeMap<>();
+        for (String key : source.keySet()) {
+            LongAdder adder = source.remove(key);
+            if (adder != null) {
+                drained.put(key, adder.sum());
+            }
+        }
+        return drained;
+    }
+
+    private static void read(JsonNode node, Map<String, Long> target) {
+        for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> entry = it.next();
+            target.put(entry.getKey(), entry.getValue().asLong());
+        }
+    }
+
+    private static Path getFile() {
+        return Paths.get(getProperty("schedule.history.file", "test-results/history/durations.json"));
+    }
+
+    private static String getProperty(String key, String defaultValue) {
+        return BaseClass.prop == null ? defaultValue : BaseClass.prop.getProperty(key, defaultValue);
+    }
+
+    /**
+     * Durations in milliseconds by class name and by "Class#method"
+     */
+    public static class History {
+        private final Map<String, Long> classes = new TreeMap<>();
+        private final Map<String, Long> methods = new TreeMap<>();
+
+        public Long getClassMillis(String className) {
+            return classes.get(className);
+        }
+
+        public Long getMethodMillis(String className, String methodName) {
+            return methods.get(className + "#" + methodName);
+        }
+
+        /**
+         * Average duration of one test method over the whole history, or 0 without history
+         */
+        public long getAverageMethodMillis() {
+            if (methods.isEmpty()) {
+                return 0;
+            }
+            long total = 0;
+            for (long millis : methods.values()) {
+                total += millis;
+            }
+            return total / methods.size();
+        }
+
+        /**
+         * Expected duration of a class: its recorded duration, else the sum of its test methods'
+         * durations, using the average (or a default without any history) for new methods
+         */
+        public long estimateClassMillis(String className) {
+            Long measured = classes.get(className);
+            if (measured != null) {
+                return measured;
+            }
+            long average = methods.isEmpty() ? DEFAULT_METHOD_MILLIS : getAverageMethodMillis();
+            long total = 0;
+            try {
+                for (Method method : Class.forName(className).getMethods()) {
+                    if (method.isAnnotationPresent(Test.class)) {
+                        Long methodMillis = getMethodMillis(className, method.getName());
+                        total += methodMillis != null ? methodMillis : average;
+                    }
+                }
+            } catch (ClassNotFoundException e) {
+                System.out.println("Cannot estimate duration of " + className + ": class not found");
+            }
+            return total;
+        }
+
+        public boolean isEmpty() {
+            return classes.isEmpty() && methods.isEmpty();
+        }
+
+        private void merge(Map<String, Long> target, Map<String, Long> current, double weight) {
+            for (Map.Entry<String, Long> entry : current.entrySet()) {
+                Long previous = target.get(entry.getKey());
+                long value = previous == null ? entry.getValue()
+                        : Math.round(weight * entry.getValue() + (1 - weight) * previous);
+                target.put(entry.getKey(), value);
+            }
+        }
+    }
+}
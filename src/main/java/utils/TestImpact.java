@@ -0,0 +1,480 @@
+package utils;
+
+import com.sun.source.tree.AnnotationTree;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.LineMap;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.SourcePositions;
+import com.sun.source.util.TreeScanner;
+import com.sun.source.util.Trees;
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlSuite;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs only the tests affected by the changes since a git revision: -Dimpact.since=origin/main.
+ *
+ * The sources under impact.source.dirs are parsed (javac tree API, nothing is compiled) into a
+ * graph from every test method to the pageActions methods it calls, the methods those call in
+ * turn, and the pageObjects constants they use. The lines changed since the revision (git diff,
+ * working tree included) are mapped to the constants and methods they touch; a test is selected
+ * when it reaches one of them. Changes outside any member (imports, class header) count as a
+ * change of the whole class, and a changed @BeforeClass or data provider selects its whole test
+ * class. Changes anywhere else in the framework (utils, resources, pom.xml) select everything;
+ * files outside src are ignored.
+ *
+ * Every selected test is printed with the change that selected it and the call path to it, and
+ * the same log is written to test-results/impact/selection.txt. Register in the suite XML before
+ * SuiteSharder so shards split the selection; WorkCoordinator applies it before planning.
+ */
+public class TestImpact implements IAlterSuiteListener {
+
+    private static final String LOG_FILE = "test-results/impact/selection.txt";
+    private static final Set<String> ANALYZED_PACKAGES = new LinkedHashSet<>(
+            Arrays.asList("pageObjects", "pageActions", "testsuite"));
+    private static final Pattern HUNK = Pattern.compile("^@@ -\\d+(?:,\\d+)? \\+(\\d+)(?:,(\\d+))? @@");
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        String since = System.getProperty("impact.since", "");
+        // Distributed workers run the suite the WorkCoordinator already narrowed down
+        if (since.isEmpty() || WorkCoordinator.isWorker()) {
+            return;
+        }
+        BaseClass.loadProperties();
+
+        Map<String, Member> members = new LinkedHashMap<>();
+        Map<Path, String> classFiles = new HashMap<>();
+        List<Path> sourceDirs = new ArrayList<>();
+        for (String dir : BaseClass.prop.getProperty("impact.source.dirs", "src/main/java,src/test/java").split(",")) {
+            sourceDirs.add(Paths.get(dir.trim()));
+        }
+        parse(sourceDirs, members, classFiles);
+
+        List<String> log = new ArrayList<>();
+        Map<String, String> changed = new LinkedHashMap<>();
+        String everything = changes(since, members, classFiles, changed, log);
+
+        Map<String, String> selected = new TreeMap<>();
+        int tests = 0;
+        for (Member member : members.values()) {
+            if (!member.test) {
+                continue;
+            }
+            tests++;
+            if (everything != null) {
+                selected.put(member.key, everything);
+                continue;
+            }
+            String reason = reason(member, members, changed);
+            if (reason != null) {
+                selected.put(member.key, reason);
+            }
+        }
+
+        log.add(0, "Test impact since " + since + ": " + selected.size() + " of " + tests + " test methods selected");
+        for (Map.Entry<String, String> entry : selected.entrySet()) {
+            log.add("  " + shortName(entry.getKey()) + " <- " + entry.getValue());
+        }
+        for (String line : log) {
+            System.out.println(line);
+        }
+        writeLog(log);
+        if (everything == null) {
+            SuiteFilter.retain(suites, (testName, className) -> {
+                Map<String, Set<Integer>> methods = new LinkedHashMap<>();
+                for (String key : selected.keySet()) {
+                    if (key.startsWith(className + "#")) {
+                        methods.put(key.substring(className.length() + 1), Collections.emptySet());
+                    }
+                }
+                return methods;
+            });
+        }
+    }
+
+    /**
+     * Source files each test class depends on: its own, those of the page objects and page actions
+     * it reaches, and every source outside the analyzed packages (the framework)
+     */
+    static Map<String, Set<Path>> sourcesByTestClass(List<Path> sourceDirs) {
+        Map<String, Member> members = new LinkedHashMap<>();
+        Map<Path, String> classFiles = new HashMap<>();
+        parse(sourceDirs, members, classFiles);
+        Map<String, Path> files = new HashMap<>();
+        for (Map.Entry<Path, String> entry : classFiles.entrySet()) {
+            files.put(entry.getValue(), entry.getKey());
+        }
+
+        Set<Path> framework = new TreeSet<>();
+        for (Path sourceDir : sourceDirs) {
+            if (Files.isDirectory(sourceDir)) {
+                try (Stream<Path> stream = Files.walk(sourceDir)) {
+                    stream.map(file -> file.toAbsolutePath().normalize())
+                            .filter(file -> file.toString().endsWith(".java") && !classFiles.containsKey(file))
+                            .forEach(framework::add);
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to list " + sourceDir, e);
+                }
+            }
+        }
+
+        Map<String, Set<Path>> sources = new TreeMap<>();
+        for (Member test : members.values()) {
+            if (!test.test || sources.containsKey(test.className)) {
+                continue;
+            }
+            Set<Path> reached = new TreeSet<>(framework);
+            Set<String> visited = new HashSet<>();
+            Deque<String> queue = new ArrayDeque<>();
+            for (Member member : members.values()) {
+                if (member.className.equals(test.className)) {
+                    queue.add(member.key);
+                }
+            }
+            while (!queue.isEmpty()) {
+                Member member = members.get(queue.poll());
+                if (member != null && visited.add(member.key)) {
+                    reached.add(files.get(member.className));
+                    queue.addAll(member.references);
+                }
+            }
+            sources.put(test.className, reached);
+        }
+        return sources;
+    }
+
+    /**
+     * Shortest call path from a test method to a changed member, or null when it reaches none
+     */
+    private static String reason(Member test, Map<String, Member> members, Map<String, String> changed) {
+        Map<String, String> parents = new HashMap<>();
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(test.key);
+        parents.put(test.key, null);
+        while (!queue.isEmpty()) {
+            String key = queue.poll();
+            if (changed.containsKey(key)) {
+                List<String> path = new ArrayList<>();
+                for (String step = parents.get(key); step != null && !step.equals(test.key); step = parents.get(step)) {
+                    path.add(0, shortName(step));
+                }
+                return changed.get(key) + (path.isEmpty() ? "" : " (via " + String.join(" -> ", path) + ")");
+            }
+            Member member = members.get(key);
+            if (member == null) {
+                continue;
+            }
+            for (String next : member.references) {
+                if (!parents.containsKey(next)) {
+                    parents.put(next, key);
+                    queue.add(next);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Collect the changed members into changed (member key to reason); returns the reason to
+     * select every test when a change cannot be narrowed down
+     */
+    private static String changes(String since, Map<String, Member> members, Map<Path, String> classFiles,
+                                  Map<String, String> changed, List<String> log) {
+        Map<String, Set<Integer>> lines = diff(since);
+        String everything = null;
+        for (Map.Entry<String, Set<Integer>> file : lines.entrySet()) {
+            Path path = Paths.get(file.getKey()).toAbsolutePath().normalize();
+            String className = classFiles.get(path);
+            if (className == null || !ANALYZED_PACKAGES.contains(className.substring(0, className.lastIndexOf('.')))) {
+                if (file.getKey().startsWith("src/") || file.getKey().equals("pom.xml")) {
+                    log.add("  changed " + file.getKey() + " - framework change, selecting all tests");
+                    everything = everything == null ? "framework change in " + file.getKey() : everything;
+                } else {
+                    log.add("  changed " + file.getKey() + " - not part of the test code, ignored");
+                }
+                continue;
+            }
+
+            Set<String> touched = new TreeSet<>();
+            boolean wholeClass = file.getValue().isEmpty();
+            for (int line : file.getValue()) {
+                Member member = memberAt(members, className, line);
+                if (member == null) {
+                    wholeClass = true;
+                } else {
+                    touched.add(member.key);
+                }
+            }
+            // Fields, setup methods and data providers of a test class affect all its tests
+            boolean setupChanged = className.startsWith("testsuite.")
+                    && touched.stream().anyMatch(key -> !members.get(key).test);
+            for (Member member : members.values()) {
+                if (member.className.equals(className) && (wholeClass || (setupChanged && member.test))) {
+                    touched.add(member.key);
+                }
+            }
+            log.add("  changed " + file.getKey() + ": " + (wholeClass ? "whole class"
+                    : touched.stream().map(TestImpact::shortName).collect(Collectors.joining(", "))));
+            for (String key : touched) {
+                changed.putIfAbsent(key, shortName(key) + " changed");
+            }
+        }
+        return everything;
+    }
+
+    private static Member memberAt(Map<String, Member> members, String className, int line) {
+        for (Member member : members.values()) {
+            if (member.className.equals(className)) {
+                for (int[] range : member.lines) {
+                    if (line >= range[0] && line <= range[1]) {
+                        return member;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Changed line numbers (new side) per file since the revision; empty for deleted files
+     */
+    private static Map<String, Set<Integer>> diff(String since) {
+        Map<String, Set<Integer>> files = new LinkedHashMap<>();
+        String current = null;
+        for (String line : git("diff", "-U0", "--no-color", "--relative", since)) {
+            if (line.startsWith("diff --git ")) {
+                current = line.substring(line.lastIndexOf(" b/") + 3);
+                files.put(current, new TreeSet<>());
+            } else if (line.equals("+++ /dev/null") && current != null) {
+                files.get(current).clear();
+            } else if (current != null) {
+                Matcher hunk = HUNK.matcher(line);
+                if (hunk.find()) {
+                    int start = Integer.parseInt(hunk.group(1));
+                    int count = hunk.group(2) == null ? 1 : Integer.parseInt(hunk.group(2));
+                    if (count == 0) {
+                        // A pure deletion sits between two lines and touches both
+                        files.get(current).add(start);
+                        files.get(current).add(start + 1);
+                    }
+                    for (int i = start; i < start + count; i++) {
+                        files.get(current).add(i);
+                    }
+                }
+            }
+        }
+        return files;
+    }
+
+    private static List<String> git(String... args) {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        Collections.addAll(command, args);
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            List<String> output;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                output = reader.lines().collect(Collectors.toList());
+            }
+            if (process.waitFor() != 0) {
+                throw new RuntimeException("git " + String.join(" ", args) + " failed: " + String.join("\n", output));
+            }
+            return output;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to run git", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while running git", e);
+        }
+    }
+
+    /**
+     * Parse the analyzed packages under the source directories into members with their references
+     */
+    private static void parse(List<Path> sourceDirs, Map<String, Member> members, Map<Path, String> classFiles) {
+        List<Path> files = new ArrayList<>();
+        for (Path sourceDir : sourceDirs) {
+            for (String pkg : ANALYZED_PACKAGES) {
+                Path dir = sourceDir.resolve(pkg);
+                if (Files.isDirectory(dir)) {
+                    try (Stream<Path> stream = Files.list(dir)) {
+                        stream.filter(file -> file.toString().endsWith(".java")).forEach(files::add);
+                    } catch (IOException e) {
+                        throw new RuntimeException("Failed to list " + dir, e);
+                    }
+                }
+            }
+        }
+        if (files.isEmpty()) {
+            return;
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new RuntimeException("Test impact analysis needs a JDK, not a JRE");
+        }
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            JavacTask task = (JavacTask) compiler.getTask(null, fileManager, diagnostic -> { }, null, null,
+                    fileManager.getJavaFileObjectsFromPaths(files));
+            SourcePositions positions = Trees.instance(task).getSourcePositions();
+            Map<String, String> knownClasses = new HashMap<>();
+            List<CompilationUnitTree> units = new ArrayList<>();
+            for (CompilationUnitTree unit : task.parse()) {
+                units.add(unit);
+                for (Tree type : unit.getTypeDecls()) {
+                    if (type instanceof ClassTree) {
+                        String name = ((ClassTree) type).getSimpleName().toString();
+                        knownClasses.put(name, unit.getPackageName() + "." + name);
+                    }
+                }
+            }
+            for (CompilationUnitTree unit : units) {
+                for (Tree type : unit.getTypeDecls()) {
+                    if (type instanceof ClassTree) {
+                        String className = knownClasses.get(((ClassTree) type).getSimpleName().toString());
+                        classFiles.put(Paths.get(unit.getSourceFile().toUri()).toAbsolutePath().normalize(), className);
+                        parseClass(unit, (ClassTree) type, className, knownClasses, positions, members);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse sources under " + sourceDirs, e);
+        }
+    }
+
+    private static void parseClass(CompilationUnitTree unit, ClassTree type, String className, Map<String, String> knownClasses,
+                                   SourcePositions positions, Map<String, Member> members) {
+        // Declared type of every field, parameter and local variable of the class by name
+        Map<String, String> variableTypes = new HashMap<>();
+        new TreeScanner<Void, Void>() {
+            @Override
+            public Void visitVariable(VariableTree variable, Void unused) {
+                variableTypes.put(variable.getName().toString(), variable.getType().toString().replaceAll("<.*", ""));
+                return super.visitVariable(variable, unused);
+            }
+        }.scan(type, null);
+
+        LineMap lineMap = unit.getLineMap();
+        int previousEnd = (int) lineMap.getLineNumber(positions.getStartPosition(unit, type));
+        for (Tree tree : type.getMembers()) {
+            String key;
+            boolean test = false;
+            if (tree instanceof MethodTree) {
+                MethodTree method = (MethodTree) tree;
+                key = className + "#" + method.getName();
+                for (AnnotationTree annotation : method.getModifiers().getAnnotations()) {
+                    test |= annotation.getAnnotationType().toString().matches("(org\\.testng\\.annotations\\.)?Test");
+                }
+            } else if (tree instanceof VariableTree) {
+                key = className + "." + ((VariableTree) tree).getName();
+            } else {
+                continue;
+            }
+
+            // Comments and annotations above a member belong to it
+            int end = (int) lineMap.getLineNumber(positions.getEndPosition(unit, tree));
+            // Overloads share one member
+            Member member = members.computeIfAbsent(key, k -> new Member(k, className));
+            member.lines.add(new int[] {previousEnd + 1, end});
+            member.test |= test;
+            previousEnd = end;
+
+            new TreeScanner<Void, Void>() {
+                @Override
+                public Void visitMemberSelect(MemberSelectTree select, Void unused) {
+                    if (select.getExpression() instanceof IdentifierTree) {
+                        String receiver = ((IdentifierTree) select.getExpression()).getName().toString();
+                        String target = knownClasses.get(receiver);
+                        if (target == null) {
+                            target = knownClasses.get(variableTypes.getOrDefault(receiver, ""));
+                        }
+                        if (target != null) {
+                            member.references.add(target + "." + select.getIdentifier());
+                            member.references.add(target + "#" + select.getIdentifier());
+                        }
+                    }
+                    return super.visitMemberSelect(select, unused);
+                }
+
+                @Override
+                public Void visitMethodInvocation(MethodInvocationTree invocation, Void unused) {
+                    if (invocation.getMethodSelect() instanceof IdentifierTree) {
+                        member.references.add(className + "#" + ((IdentifierTree) invocation.getMethodSelect()).getName());
+                    }
+                    return super.visitMethodInvocation(invocation, unused);
+                }
+            }.scan(tree, null);
+        }
+    }
+
+    private static void writeLog(List<String> log) {
+        Path file = Paths.get(LOG_FILE);
+        try {
+            Files.createDirectories(file.getParent());
+            Files.write(file, log, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.out.println("Failed to write test impact log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * LoginPageActions#login for pageActions.LoginPageActions#login
+     */
+    private static String shortName(String key) {
+        int separator = key.contains("#") ? key.indexOf('#') : key.lastIndexOf('.');
+        String className = key.substring(0, separator);
+        return className.substring(className.lastIndexOf('.') + 1) + key.substring(separator);
+    }
+
+    /**
+     * A field or method of an analyzed class, with the lines it spans and what it refers to
+     */
+    private static class Member {
+        private final String key;
+        private final String className;
+        private final Set<String> references = new LinkedHashSet<>();
+        private final List<int[]> lines = new ArrayList<>();
+        private boolean test;
+
+        Member(String key, String className) {
+            this.key = key;
+            this.className = className;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package utils;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
 import org.testng.ITestContext;
+import org.testng.internal.TestResult;
 
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
@@ -12,17 +13,33 @@ public class TestListener implements ITestListener {
     
     @Override
     public void onTestStart(ITestResult result) {
-        System.out.println("Starting test: " + result.getMethod().getMethodName());
+        System.out.println("Starting test: " + getTestName(result));
     }
     
     @Override
     public void onTestSuccess(ITestResult result) {
-        System.out.println("Test passed: " + result.getMethod().getMethodName());
+        // Not run, so it adds nothing to the duration and flakiness history
+        if (ResultCache.isCached(result)) {
+            System.out.println("Test passed (cached since " + ResultCache.getCachedSince(result) + "): " + getTestName(result));
+            RunManifest.record(result);
+            return;
+        }
+        System.out.println("Test passed: " + getTestName(result));
+        CircuitBreaker.record(result);
+        TestHistory.record(result);
+        RetryAnalyzer.recordOutcome(result);
+        RunManifest.record(result);
+        ResultCache.record(result);
     }
     
     @Override
     public void onTestFailure(ITestResult result) {
-        System.out.println("Test failed: " + result.getMethod().getMethodName());
+        System.out.println("Test failed: " + getTestName(result));
+        CircuitBreaker.record(result);
+        TestHistory.record(result);
+        RetryAnalyzer.recordOutcome(result);
+        RunManifest.record(result);
+        ResultCache.record(result);
         
         // Take screenshot on failure if configured
         if (BaseClass.prop != null && 
@@ -30,6 +47,9 @@ public class TestListener implements ITestListener {
             takeScreenshotOnFailure(result);
         }
         
+        // Keep the last seconds of screencast frames leading up to the failure
+        ScreencastRecorder.flush(getTestName(result));
+        
         // Print stack trace
         System.out.println("Failure reason: " + result.getThrowable().getMessage());
         result.getThrowable().printStackTrace();
@@ -37,7 +57,14 @@ public class TestListener implements ITestListener {
     
     @Override
     public void onTestSkipped(ITestResult result) {
-        System.out.println("Test skipped: " + result.getMethod().getMethodName());
+        // A failed attempt that RetryAnalyzer retries is reported as skipped
+        if (result.wasRetried()) {
+            System.out.println("Test failed, retrying: " + getTestName(result));
+            CircuitBreaker.record(result);
+            return;
+        }
+        System.out.println("Test skipped: " + getTestName(result));
+        RunManifest.record(result);
     }
     
     @Override
@@ -52,6 +79,50 @@ public class TestListener implements ITestListener {
         System.out.println("Passed: " + context.getPassedTests().size());
         System.out.println("Failed: " + context.getFailedTests().size());
         System.out.println("Skipped: " + context.getSkippedTests().size());
+        
+        // Durations for SuiteScheduler to order the next run
+        TestHistory.save();
+        
+        // Status of every test for -Drerun=failed
+        RunManifest.save();
+        
+        // First-attempt passes, skipped next time while the app build and test code stay the same
+        ResultCache.save();
+        
+        // Tests that only passed after a retry, with their flake rate over past runs
+        RetryAnalyzer.report();
+        
+        // Tests skipped because the environment is down
+        CircuitBreaker.printReport();
+        
+        // Slowest actions and selectors so far in the run
+        ActionMetrics.printReport();
+        ActionMetrics.writeJson();
+    }
+    
+    /**
+     * Method name plus the data provider row, so parallel rows are reported separately
+     */
+    static String getTestName(ITestResult result) {
+        int row = getRow(result);
+        return result.getMethod().getMethodName() + (row < 0 ? "" : "[row " + row + "]");
+    }
+    
+    /**
+     * Qualified method name plus the data provider row, the key a test is tracked by across
+     * attempts and runs
+     */
+    static String getTestKey(ITestResult result) {
+        int row = getRow(result);
+        return result.getMethod().getQualifiedName() + (row < 0 ? "" : "#" + row);
+    }
+    
+    /**
+     * Data provider row of an invocation, or -1 for a test without parameters
+     */
+    static int getRow(ITestResult result) {
+        return result instanceof TestResult && result.getParameters().length > 0
+                ? ((TestResult) result).getParameterIndex() : -1;
     }
     
     private void takeScreenshotOnFailure(ITestResult result) {
@@ -59,7 +130,7 @@ public class TestListener implements ITestListener {
             if (BaseClass.getPage() != null) {
                 String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
                 String fileName = "test-results/screenshots/" + 
-                    result.getMethod().getMethodName() + "_" + timestamp + ".png";
+                    getTestName(result).replaceAll("[^A-Za-z0-9._-]", "_") + "_" + timestamp + ".png";
                 
                 BaseClass.getPage().screenshot(new com.microsoft.playwright.Page.ScreenshotOptions()
                     .setPath(Paths.get(fileName)));
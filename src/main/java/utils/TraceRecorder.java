@@ -0,0 +1,218 @@
+package utils;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Tracing;
+import org.testng.ITestResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-test Playwright tracing controlled by the "tracing" property:
+ *
+ * off               - no tracing
+ * on                - every test is recorded and saved
+ * retain-on-failure - every test is recorded, only failed tests are saved
+ * on-first-retry    - only the first retry of a test is recorded and saved
+ *
+ * Tests are recorded as trace chunks (startChunk/stopChunk) on the current context, so chunks of
+ * passing tests are discarded without being serialized. Files are written to test-results/traces
+ * as Class_test[row N]_attemptN.zip. When a test replaces its context (session cache login) the
+ * chunk recorded on the old context is saved as a separate _partN file; in retain-on-failure mode
+ * the old context is kept open until the test ends and only written if it failed.
+ */
+public class TraceRecorder {
+
+    private static final Path TRACE_DIR = Paths.get("test-results/traces");
+    private static final Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+    private static final ThreadLocal<ActiveTrace> active = new ThreadLocal<>();
+    private static final Map<String, List<Path>> saved = new ConcurrentHashMap<>();
+
+    public enum Mode {
+        OFF, ON, RETAIN_ON_FAILURE, ON_FIRST_RETRY;
+
+        static Mode parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase().replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                System.out.println("Unknown tracing mode '" + value + "' - using retain-on-failure");
+                return RETAIN_ON_FAILURE;
+            }
+        }
+    }
+
+    /**
+     * Get the configured tracing mode
+     */
+    public static Mode getMode() {
+        String value = BaseClass.prop == null ? "retain-on-failure"
+                : BaseClass.prop.getProperty("tracing", "retain-on-failure");
+        return Mode.parse(value);
+    }
+
+    /**
+     * Prepare a newly created context. In on/retain-on-failure mode tracing is started once per
+     * context; recording only happens while a test chunk is open.
+     */
+    public static void onContextCreated(BrowserContext context) {
+        Mode mode = getMode();
+        ActiveTrace trace = active.get();
+
+        if (mode == Mode.ON || mode == Mode.RETAIN_ON_FAILURE) {
+            startTracing(context, trace == null ? null : trace.title);
+            if (trace == null) {
+                // Nothing to record until a test starts
+                context.tracing().stopChunk();
+            }
+        } else if (mode == Mode.ON_FIRST_RETRY && trace != null) {
+            startTracing(context, trace.title);
+        }
+    }
+
+    /**
+     * Start recording a test on the given context if the mode asks for it. A retry first deletes
+     * the traces saved for the failed attempt, so only the last attempt is kept (on-first-retry
+     * keeps its retry trace regardless).
+     */
+    public static void beginTest(BrowserContext context, ITestResult result, boolean retry) {
+        String key = TestListener.getTestKey(result);
+        int attempt = attempts.computeIfAbsent(key, k -> new AtomicInteger()).getAndIncrement();
+        Mode mode = getMode();
+        // RetryAnalyzer.retry() runs before the failed attempt's endTest, so this is the first
+        // point at which its files are known
+        List<Path> previous = saved.remove(key);
+        if (retry && previous != null && mode != Mode.ON_FIRST_RETRY) {
+            delete(previous);
+        }
+        if (context == null || mode == Mode.OFF || (mode == Mode.ON_FIRST_RETRY && attempt != 1)) {
+            return;
+        }
+
+        ActiveTrace trace = new ActiveTrace(getFileBase(result, attempt), TestListener.getTestName(result));
+        if (mode == Mode.ON_FIRST_RETRY) {
+            startTracing(context, trace.title);
+        } else {
+            context.tracing().startChunk(new Tracing.StartChunkOptions().setTitle(trace.title));
+        }
+        active.set(trace);
+    }
+
+    /**
+     * Close a context the current test replaces. In retain-on-failure mode it stays open with its
+     * chunk until endTest knows whether the test failed; otherwise the chunk so far is saved first.
+     */
+    public static void closeContext(BrowserContext context) {
+        ActiveTrace trace = active.get();
+        if (trace != null && getMode() == Mode.RETAIN_ON_FAILURE) {
+            trace.replaced.add(context);
+            return;
+        }
+        if (trace != null) {
+            Path part = TRACE_DIR.resolve(trace.fileBase + "_part" + (trace.parts.size() + 1) + ".zip");
+            stop(context, part);
+            trace.parts.add(part);
+        }
+        context.close();
+    }
+
+    /**
+     * Finish recording a test, keeping the trace only if the mode retains it for this result
+     */
+    public static void endTest(BrowserContext context, ITestResult result) {
+        ActiveTrace trace = active.get();
+        active.remove();
+        if (trace == null) {
+            return;
+        }
+
+        Mode mode = getMode();
+        boolean retain = mode != Mode.RETAIN_ON_FAILURE || result.getStatus() == ITestResult.FAILURE;
+        // Contexts replaced during the test are only serialized now that the test has failed
+        for (BrowserContext replaced : trace.replaced) {
+            Path part = retain ? TRACE_DIR.resolve(trace.fileBase + "_part" + (trace.parts.size() + 1) + ".zip") : null;
+            stop(replaced, part);
+            if (part != null) {
+                trace.parts.add(part);
+            }
+            try {
+                replaced.close();
+            } catch (Exception e) {
+                System.out.println("Failed to close replaced context: " + e.getMessage());
+            }
+        }
+        if (context != null) {
+            Path path = retain ? TRACE_DIR.resolve(trace.fileBase
+                    + (trace.parts.isEmpty() ? "" : "_part" + (trace.parts.size() + 1)) + ".zip") : null;
+            stop(context, path);
+            if (path != null) {
+                System.out.println("Trace saved: " + path);
+                trace.parts.add(path);
+            }
+        }
+        // Remembered so a retry of this attempt can delete them
+        if (!trace.parts.isEmpty()) {
+            saved.put(TestListener.getTestKey(result), trace.parts);
+        }
+    }
+
+    private static void delete(List<Path> parts) {
+        for (Path part : parts) {
+            try {
+                Files.deleteIfExists(part);
+            } catch (IOException e) {
+                System.out.println("Failed to delete trace " + part + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static void startTracing(BrowserContext context, String title) {
+        context.tracing().start(new Tracing.StartOptions()
+                .setTitle(title)
+                .setScreenshots(true)
+                .setSnapshots(true)
+                .setSources(true));
+    }
+
+    /**
+     * Stop the current recording, writing it to path (or discarding it when path is null)
+     */
+    private static void stop(BrowserContext context, Path path) {
+        try {
+            if (getMode() == Mode.ON_FIRST_RETRY) {
+                context.tracing().stop(new Tracing.StopOptions().setPath(path));
+            } else {
+                context.tracing().stopChunk(new Tracing.StopChunkOptions().setPath(path));
+            }
+        } catch (Exception e) {
+            System.out.println("Failed to stop trace: " + e.getMessage());
+        }
+    }
+
+    private static String getFileBase(ITestResult result, int attempt) {
+        String name = result.getTestClass().getRealClass().getSimpleName() + "_" + TestListener.getTestName(result)
+                + "_attempt" + (attempt + 1);
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    /**
+     * Recording state of the test currently running on a thread
+     */
+    private static class ActiveTrace {
+        private final String fileBase;
+        private final String title;
+        private final List<Path> parts = new ArrayList<>();
+        private final List<BrowserContext> replaced = new ArrayList<>();
+
+        ActiveTrace(String fileBase, String title) {
+            this.fileBase = fileBase;
+            this.title = title;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package utils;
+
+import com.microsoft.playwright.Response;
+import com.microsoft.playwright.options.SelectOption;
+import com.microsoft.playwright.options.WaitForSelectorState;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Browser operations used by PlaywrightUtils and the page actions.
+ *
+ * PlaywrightDriver runs them against the current Playwright page; FakeDriver runs them against an
+ * in-memory fake DOM so page-action logic can be exercised without a browser. Elements are
+ * addressed with the same locator types as PlaywrightUtils (css, xpath, id, name, text, ...).
+ * An index of ANY_MATCH addresses the locator itself, which must match a single element;
+ * an index of 0 or more addresses the nth match.
+ */
+public interface UiDriver {
+
+    int ANY_MATCH = -1;
+
+    void click(String locatorType, String locatorValue, int index);
+
+    void fill(String locatorType, String locatorValue, int index, String text);
+
+    void clear(String locatorType, String locatorValue, int index);
+
+    String getText(String locatorType, String locatorValue, int index);
+
+    String getAttribute(String locatorType, String locatorValue, String attributeName);
+
+    String getCssValue(String locatorType, String locatorValue, String property);
+
+    boolean isVisible(String locatorType, String locatorValue);
+
+    boolean isEnabled(String locatorType, String locatorValue);
+
+    boolean isChecked(String locatorType, String locatorValue);
+
+    void setChecked(String locatorType, String locatorValue, boolean checked);
+
+    void waitFor(String locatorType, String locatorValue, WaitForSelectorState state);
+
+    int count(String locatorType, String locatorValue);
+
+    /**
+     * Snapshot every match of a locator at once
+     */
+    List<ElementSnapshot> queryAll(String locatorType, String locatorValue);
+
+    /**
+     * Set several fields (selector to value) at once. Returns the selectors that could not be set
+     * directly and need a regular fill.
+     */
+    List<String> fillForm(Map<String, String> fields);
+
+    /**
+     * Select an option by value or label
+     */
+    void selectOption(String locatorType, String locatorValue, String valueOrLabel);
+
+    void selectOption(String locatorType, String locatorValue, SelectOption option);
+
+    void hover(String locatorType, String locatorValue);
+
+    void doubleClick(String locatorType, String locatorValue);
+
+    void rightClick(String locatorType, String locatorValue);
+
+    void scrollIntoView(String locatorType, String locatorValue);
+
+    void uploadFile(String locatorType, String locatorValue, Path file);
+
+    void pressKey(String key);
+
+    void typeKeys(String text);
+
+    void scrollBy(int x, int y);
+
+    Object evaluate(String script);
+
+    void navigate(String url);
+
+    String getUrl();
+
+    String getTitle();
+
+    void reload();
+
+    void goBack();
+
+    void goForward();
+
+    void waitForLoad();
+
+    void waitForAppReady(String label, int legacyMillis);
+
+    void waitForElementState(String label, int legacyMillis, String selector, WaitForSelectorState state);
+
+    /**
+     * Run a trigger and wait for the backend responses registered for the action in EndpointRegistry
+     */
+    List<Response> performAndWaitForResponses(String action, Runnable trigger);
+}
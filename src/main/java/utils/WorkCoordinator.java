@@ -0,0 +1,497 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.TestNG;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+import org.testng.xml.internal.Parser;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs a suite on forked worker JVMs that pull work from a shared queue.
+ *
+ * The coordinator queues the suite's test classes (or single test methods with
+ * distributed.unit=method) longest first by TestHistory and forks distributed.workers JVMs. Each
+ * worker has its own BrowserPool and stand-in server, and asks for the next item whenever it is
+ * idle, so a worker that drew short classes simply takes more of them and no worker sits idle
+ * while others still have a backlog - unlike SuiteSharder's fixed split. Workers run each item as
+ * a one-class TestNG suite with the suite's listeners, so TestListener still takes screenshots and
+ * logs on the worker, and stream every result back over a localhost socket. The coordinator
+ * prints the results as they arrive, records their durations and retries, and finally merges the
+ * workers' reports into test-output/distributed with ShardMerger.
+ *
+ * Test selection (-Drerun=failed, -Dimpact.since, -Dbudget.minutes) happens once in the
+ * coordinator, which writes the selected suite for the workers to take each item's methods and
+ * data provider rows from.
+ *
+ * Method units run @BeforeClass once per method and lose the priority order inside a class, so
+ * only use them for classes whose tests are independent.
+ *
+ * Usage: WorkCoordinator &lt;suite.xml&gt; (exits with 1 when a test failed)
+ */
+public class WorkCoordinator {
+
+    private static final String OUTPUT_DIR = "test-output/distributed";
+    private static final String WORKER_PROPERTY = "distributed.worker";
+    private static final String DONE = "DONE";
+
+    private final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+    private final Map<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+    private final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.out.println("Usage: WorkCoordinator <suite.xml>");
+            System.exit(2);
+        }
+        BaseClass.loadProperties();
+        int failed = new WorkCoordinator().run(args[0]);
+        System.exit(failed > 0 ? 1 : 0);
+    }
+
+    /**
+     * True inside a forked worker JVM
+     */
+    public static boolean isWorker() {
+        return System.getProperty(WORKER_PROPERTY) != null;
+    }
+
+    /**
+     * Run the suite on the workers and return the number of failed tests
+     */
+    int run(String suiteFile) throws Exception {
+        int workers = Integer.parseInt(getProperty("distributed.workers", "2"));
+        boolean methods = "method".equals(getProperty("distributed.unit", "class"));
+        XmlSuite suite = parse(suiteFile);
+        // Tests are selected once for the whole run (-Drerun=failed, -Dimpact.since, -Dbudget.minutes
+        // on the workers), in the order of the suite XML listeners; the workers run the selected suite as it is
+        List<XmlSuite> suites = Collections.singletonList(suite);
+        new RunManifest().alter(suites);
+        new TestImpact().alter(suites);
+        TestBudget.alter(suites, workers);
+        List<String> items = plan(suite, methods);
+        queue.addAll(items);
+        System.out.println("Distributing " + items.size() + (methods ? " test methods" : " test classes")
+                + " over " + workers + " worker JVM(s)");
+
+        long start = System.currentTimeMillis();
+        Path output = Paths.get(OUTPUT_DIR);
+        clean(output);
+        Files.createDirectories(output);
+        Path selected = output.resolve("selected-suite.xml");
+        Files.write(selected, suite.toXml().getBytes(StandardCharsets.UTF_8));
+        try (ServerSocket server = new ServerSocket(0, workers, InetAddress.getLoopbackAddress())) {
+            List<Process> processes = new ArrayList<>();
+            List<Thread> connections = new ArrayList<>();
+            for (int i = 1; i <= workers; i++) {
+                processes.add(fork(i, server.getLocalPort(), selected.toString(), output));
+            }
+            connect(server, processes, connections);
+            if (connections.isEmpty()) {
+                // Nothing will run the queued items, so they all fail
+                for (String item = queue.poll(); item != null; item = queue.poll()) {
+                    fail(item + " (no worker connected)");
+                }
+            }
+            for (Thread connection : connections) {
+                connection.join();
+            }
+            for (Process process : processes) {
+                process.waitFor();
+            }
+        }
+
+        TestHistory.save();
+        RunManifest.save();
+        ResultCache.save();
+        RetryAnalyzer.report();
+        List<Path> workerDirs = new ArrayList<>();
+        for (int i = 1; i <= workers; i++) {
+            // A worker that drew no work (e.g. a small rerun) has no reports
+            if (Files.isDirectory(output.resolve("worker-" + i))) {
+                workerDirs.add(output.resolve("worker-" + i));
+            }
+        }
+        if (!workerDirs.isEmpty()) {
+            ShardMerger.merge(output, workerDirs);
+        }
+
+        System.out.println("========== Distributed run ==========");
+        System.out.println(String.format("Passed %d (%d cached), failed %d, skipped %d in %.1fs on %d workers",
+                count("PASS") + count("CACHED"), count("CACHED"), count("FAIL"), count("SKIP"),
+                (System.currentTimeMillis() - start) / 1000.0, workers));
+        for (String failure : failures) {
+            System.out.println("  FAILED " + failure);
+        }
+        System.out.println("=====================================");
+        return count("FAIL");
+    }
+
+    /**
+     * Accept a connection from every forked worker. A worker JVM that exits before connecting (bad
+     * classpath, JVM option error, out of memory) or does not connect within
+     * distributed.connect.timeout is counted as a failed item instead of leaving accept() waiting
+     * forever; the workers that did connect take over its share of the queue.
+     */
+    private void connect(ServerSocket server, List<Process> processes, List<Thread> connections) throws IOException {
+        long timeout = Long.parseLong(getProperty("distributed.connect.timeout", "60000"));
+        long deadline = System.currentTimeMillis() + timeout;
+        Set<Integer> waiting = new TreeSet<>();
+        for (int i = 1; i <= processes.size(); i++) {
+            waiting.add(i);
+        }
+        server.setSoTimeout(1000);
+        while (!waiting.isEmpty()) {
+            try {
+                Socket socket = server.accept();
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                // The worker sends its id first
+                String worker = in.readLine();
+                if (worker == null || !waiting.remove(Integer.valueOf(worker))) {
+                    socket.close();
+                    continue;
+                }
+                Thread connection = new Thread(() -> serve(socket, in, worker), "coordinator-connection-" + worker);
+                connection.start();
+                connections.add(connection);
+                continue;
+            } catch (SocketTimeoutException | NumberFormatException e) {
+                // Check on the workers that have not connected yet
+            }
+
+            boolean late = System.currentTimeMillis() > deadline;
+            for (Iterator<Integer> it = waiting.iterator(); it.hasNext(); ) {
+                int id = it.next();
+                Process process = processes.get(id - 1);
+                if (process.isAlive() && !late) {
+                    continue;
+                }
+                if (process.isAlive()) {
+                    process.destroyForcibly();
+                    fail("worker " + id + " did not connect within " + timeout + "ms (see worker-" + id + ".log)");
+                } else {
+                    fail("worker " + id + " exited with code " + process.exitValue()
+                            + " before connecting (see worker-" + id + ".log)");
+                }
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Hand out items to one worker until the queue is empty, collecting the results it streams back
+     */
+    private void serve(Socket socket, BufferedReader reader, String worker) {
+        String current = null;
+        try (Socket s = socket;
+             BufferedReader in = reader;
+             PrintWriter out = new PrintWriter(s.getOutputStream(), true)) {
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                if (line.equals("NEXT")) {
+                    current = queue.poll();
+                    out.println(current == null ? DONE : current);
+                    if (current == null) {
+                        return;
+                    }
+                } else if (line.startsWith("RESULT\t")) {
+                    result(worker, line.split("\t", 12));
+                }
+            }
+            // The worker exited without asking for more work
+            if (current != null) {
+                fail(current + " (worker " + worker + " exited)");
+            }
+        } catch (IOException e) {
+            System.out.println("Lost connection to worker: " + e.getMessage());
+        }
+    }
+
+    /**
+     * RESULT, status, class, method, test name (with data provider row), test key, retries, start,
+     * end, run manifest entry, result cache update (empty for none), message
+     */
+    private void result(String worker, String[] fields) {
+        String status = fields[1];
+        String simpleName = fields[2].substring(fields[2].lastIndexOf('.') + 1);
+        String test = simpleName + "." + fields[4];
+        long start = Long.parseLong(fields[7]);
+        long end = Long.parseLong(fields[8]);
+        counts.computeIfAbsent(status, k -> new AtomicInteger()).incrementAndGet();
+        if (!status.equals("CACHED")) {
+            TestHistory.record(fields[2], fields[3], start, end);
+        }
+        if (status.equals("PASS") || status.equals("FAIL")) {
+            RetryAnalyzer.recordOutcome(fields[5], fields[4], simpleName, Integer.parseInt(fields[6]), status.equals("PASS"));
+        }
+        try {
+            RunManifest.record((ObjectNode) new ObjectMapper().readTree(fields[9]));
+            if (!fields[10].isEmpty()) {
+                ResultCache.record(fields[5], (ObjectNode) new ObjectMapper().readTree(fields[10]));
+            }
+        } catch (IOException e) {
+            System.out.println("Unreadable run manifest or result cache entry from worker " + worker + ": " + e.getMessage());
+        }
+        if (status.equals("FAIL")) {
+            failures.add(test + ": " + fields[11]);
+        }
+        System.out.println(String.format("[worker %s] %s %s (%.1fs)", worker, status, test, (end - start) / 1000.0));
+    }
+
+    private void fail(String failure) {
+        failures.add(failure);
+        counts.computeIfAbsent("FAIL", k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    private int count(String status) {
+        AtomicInteger count = counts.get(status);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * Work items longest first: "Class" per test class, or "Class#method" per test method
+     */
+    private static List<String> plan(XmlSuite suite, boolean methods) throws ClassNotFoundException {
+        TestHistory.History history = TestHistory.load();
+        List<String> classes = new ArrayList<>();
+        // Methods a class is limited to in the XML (or by -Drerun=failed), "*" for all of them
+        Map<String, List<String>> included = new ConcurrentHashMap<>();
+        for (XmlTest test : suite.getTests()) {
+            for (XmlClass xmlClass : test.getXmlClasses()) {
+                if (!classes.contains(xmlClass.getName())) {
+                    classes.add(xmlClass.getName());
+                }
+                List<String> names = included.computeIfAbsent(xmlClass.getName(), k -> new ArrayList<>());
+                if (xmlClass.getIncludedMethods().isEmpty()) {
+                    names.add("*");
+                }
+                for (XmlInclude include : xmlClass.getIncludedMethods()) {
+                    names.add(include.getName());
+                }
+            }
+        }
+
+        List<String> items = new ArrayList<>();
+        Map<String, Long> estimates = new ConcurrentHashMap<>();
+        for (String className : classes) {
+            if (!methods) {
+                items.add(className);
+                estimates.put(className, history.estimateClassMillis(className));
+                continue;
+            }
+            for (Method method : Class.forName(className).getMethods()) {
+                List<String> names = included.get(className);
+                if (method.isAnnotationPresent(org.testng.annotations.Test.class)
+                        && (names.contains("*") || names.contains(method.getName()))) {
+                    String item = className + "#" + method.getName();
+                    Long millis = history.getMethodMillis(className, method.getName());
+                    items.add(item);
+                    estimates.put(item, millis != null ? millis : history.getAverageMethodMillis());
+                }
+            }
+        }
+        items.sort(Comparator.comparingLong((String item) -> estimates.get(item)).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+        return items;
+    }
+
+    private static Process fork(int id, int port, String suiteFile, Path output) throws IOException {
+        Path log = output.resolve("worker-" + id + ".log");
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> command = new ArrayList<>(Arrays.asList(java, "-cp", System.getProperty("java.class.path"),
+                "-D" + WORKER_PROPERTY + "=" + id));
+        command.addAll(forwardedProperties());
+        command.addAll(Arrays.asList(Worker.class.getName(), String.valueOf(port), suiteFile,
+                output.resolve("worker-" + id).toString()));
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+    }
+
+    /**
+     * -D options of the coordinator that change what a worker runs (-Drerun, -Dresult.cache.*,
+     * -Dbudget.*, -Dimpact.*)
+     */
+    private static List<String> forwardedProperties() {
+        List<String> options = new ArrayList<>();
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.equals("rerun") || key.startsWith("result.cache.") || key.startsWith("budget.")
+                    || key.startsWith("impact.")) {
+                options.add("-D" + key + "=" + System.getProperty(key));
+            }
+        }
+        return options;
+    }
+
+    private static void clean(Path dir) throws IOException {
+        if (Files.exists(dir)) {
+            try (Stream<Path> files = Files.walk(dir)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private static XmlSuite parse(String suiteFile) throws IOException {
+        return new Parser(suiteFile).parseToList().get(0);
+    }
+
+    /**
+     * A -D system property when set and not empty, else config.properties
+     */
+    private static String getProperty(String key, String defaultValue) {
+        String value = System.getProperty(key, "");
+        return value.isEmpty() ? BaseClass.prop.getProperty(key, defaultValue) : value;
+    }
+
+    /**
+     * Worker JVM: runs work items until the coordinator has none left.
+     *
+     * Usage: Worker &lt;port&gt; &lt;suite.xml&gt; &lt;output-dir&gt;
+     */
+    public static class Worker {
+
+        public static void main(String[] args) throws Exception {
+            XmlSuite template = parse(args[1]);
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0]));
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                 PrintWriter out = new PrintWriter(socket.getOutputStream(), true)) {
+                out.println(System.getProperty(WORKER_PROPERTY));
+                ITestListener streamer = new ResultStreamer(out);
+
+                int run = 0;
+                for (out.println("NEXT"); ; out.println("NEXT")) {
+                    String item = in.readLine();
+                    if (item == null || item.equals(DONE)) {
+                        break;
+                    }
+                    TestNG testng = new TestNG();
+                    testng.setXmlSuites(Collections.singletonList(suiteFor(template, item)));
+                    testng.setOutputDirectory(args[2] + File.separator + "run-" + (++run));
+                    testng.addListener(streamer);
+                    testng.run();
+                }
+            } finally {
+                BrowserPool.shutdownInstance();
+                StandInServer.stop();
+            }
+        }
+
+        /**
+         * A copy of the suite's settings and listeners holding only the given class or method, with
+         * the methods and data provider rows the coordinator selected
+         */
+        private static XmlSuite suiteFor(XmlSuite template, String item) {
+            String[] parts = item.split("#", 2);
+            XmlTest source = template.getTests().get(0);
+            XmlClass selected = null;
+            for (XmlTest test : template.getTests()) {
+                for (XmlClass xmlClass : test.getXmlClasses()) {
+                    if (xmlClass.getName().equals(parts[0])) {
+                        source = test;
+                        selected = xmlClass;
+                    }
+                }
+            }
+
+            XmlSuite suite = new XmlSuite();
+            suite.setName(template.getName());
+            suite.setVerbose(template.getVerbose());
+            suite.setParameters(template.getParameters());
+            suite.setListeners(template.getListeners());
+            suite.setDataProviderThreadCount(template.getDataProviderThreadCount());
+
+            XmlTest test = new XmlTest(suite);
+            test.setName(source.getName());
+            XmlClass xmlClass = new XmlClass(parts[0]);
+            for (XmlInclude include : selected == null ? new ArrayList<XmlInclude>() : selected.getIncludedMethods()) {
+                if (parts.length == 1 || include.getName().equals(parts[1])) {
+                    xmlClass.getIncludedMethods().add(new XmlInclude(include.getName(), include.getInvocationNumbers(),
+                            xmlClass.getIncludedMethods().size()));
+                }
+            }
+            if (parts.length > 1 && xmlClass.getIncludedMethods().isEmpty()) {
+                xmlClass.getIncludedMethods().add(new XmlInclude(parts[1]));
+            }
+            test.setXmlClasses(Collections.singletonList(xmlClass));
+            return suite;
+        }
+    }
+
+    /**
+     * Sends every finished test of a worker to the coordinator
+     */
+    private static class ResultStreamer implements ITestListener {
+        private final PrintWriter out;
+
+        ResultStreamer(PrintWriter out) {
+            this.out = out;
+        }
+
+        @Override
+        public void onTestSuccess(ITestResult result) {
+            send(ResultCache.isCached(result) ? "CACHED" : "PASS", result);
+        }
+
+        @Override
+        public void onTestFailure(ITestResult result) {
+            send("FAIL", result);
+        }
+
+        @Override
+        public void onTestSkipped(ITestResult result) {
+            // Failed attempts that RetryAnalyzer retries are reported as skipped
+            if (!result.wasRetried()) {
+                send("SKIP", result);
+            }
+        }
+
+        private void send(String status, ITestResult result) {
+            String message = result.getThrowable() == null ? "" : String.valueOf(result.getThrowable().getMessage());
+            ObjectNode cacheUpdate = ResultCache.entry(result);
+            synchronized (out) {
+                out.println(String.join("\t", "RESULT", status, result.getTestClass().getRealClass().getName(),
+                        result.getMethod().getMethodName(), TestListener.getTestName(result),
+                        TestListener.getTestKey(result), String.valueOf(RetryAnalyzer.getRetries(result)),
+                        String.valueOf(result.getStartMillis()),
+                        String.valueOf(result.getEndMillis()), RunManifest.entry(result).toString(),
+                        cacheUpdate == null ? "" : cacheUpdate.toString(), message.replaceAll("\\s+", " ")));
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+// Shared behaviour of the stand-in ADL pages
+var pendingCalls = 0;
+
+// The spinner and progress bar stay visible while API calls are pending, as in the real app
+function loading(delta) {
+  pendingCalls += delta;
+  document.querySelectorAll('ngx-spinner, mat-progress-bar').forEach(function (loader) {
+    loader.hidden = pendingCalls === 0;
+  });
+}
+
+function api(method, url, body) {
+  loading(1);
+  return fetch(url, {
+    method: method,
+    headers: { 'Content-Type': 'application/json' },
+    body: body === undefined ? undefined : JSON.stringify(body)
+  }).then(function (response) {
+    return response.json().then(function (data) {
+      if (!response.ok) { throw new Error(data.error || response.statusText); }
+      return data;
+    });
+  }).then(function (data) {
+    loading(-1);
+    return data;
+  }, function (error) {
+    loading(-1);
+    throw error;
+  });
+}
+
+function value(name) {
+  var field = document.querySelector('[name="' + name + '"]');
+  return field ? field.value.trim() : '';
+}
+
+function show(selector, text) {
+  var element = document.querySelector(selector);
+  if (text !== undefined) { element.textContent = text; }
+  element.hidden = false;
+}
+
+function hide(selector) {
+  document.querySelector(selector).hidden = true;
+}
+
+function initHeader() {
+  var arrow = document.getElementById('profileArrow');
+  if (!arrow) { return; }
+  arrow.addEventListener('click', function () {
+    var menu = document.querySelector('.profile-menu');
+    menu.hidden = !menu.hidden;
+  });
+  document.getElementById('logoutButton').addEventListener('click', function () {
+    api('POST', '/api/logout').then(function () { location.href = '/login'; });
+  });
+}
+
+document.addEventListener('DOMContentLoaded', initHeader);
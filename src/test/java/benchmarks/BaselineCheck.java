@@ -0,0 +1,127 @@
+package benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result with the checked-in baseline and fails the build on regressions.
+ *
+ * A benchmark regresses when its score is worse than the baseline by more than
+ * benchmark.tolerance (a fraction, 0.20 = 20%) and the difference is larger than the two error
+ * margins combined. Throughput scores are better when higher, all other modes when lower.
+ * With benchmark.record=true the result is written to the baseline instead, replacing the entries
+ * of the benchmarks that ran. Without a baseline the comparison is skipped; benchmarks missing
+ * from an existing baseline fail the build until they are recorded, so none goes unchecked.
+ *
+ * Usage: BaselineCheck &lt;jmh-result.json&gt; &lt;baseline.json&gt;
+ */
+public class BaselineCheck {
+
+    public static void main(String[] args) throws IOException {
+        Path result = Paths.get(args[0]);
+        Path baseline = Paths.get(args[1]);
+        double tolerance = Double.parseDouble(System.getProperty("benchmark.tolerance", "0.20"));
+
+        if (Boolean.parseBoolean(System.getProperty("benchmark.record", "false"))) {
+            record(result, baseline);
+            return;
+        }
+        if (!Files.exists(baseline)) {
+            System.out.println("No benchmark baseline at " + baseline + " - comparison skipped. Record one on the CI "
+                    + "runner with -Dbenchmark.record=true and check it in");
+            return;
+        }
+
+        Map<String, JsonNode> current = readScores(result);
+        Map<String, JsonNode> expected = readScores(baseline);
+        int regressions = 0;
+        int missing = 0;
+
+        System.out.println(String.format("%-70s %14s %14s %8s", "Benchmark", "Baseline", "Current", "Change"));
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode base = expected.get(entry.getKey());
+            JsonNode now = entry.getValue();
+            if (base == null) {
+                missing++;
+                System.out.println(String.format("%-70s %14s %14.3f %8s", entry.getKey(), "-", score(now),
+                        "  NOT IN BASELINE"));
+                continue;
+            }
+
+            boolean higherIsBetter = "thrpt".equals(now.path("mode").asText());
+            double change = (score(now) - score(base)) / score(base);
+            double worse = higherIsBetter ? -change : change;
+            double noise = error(now) + error(base);
+            boolean regressed = worse > tolerance && Math.abs(score(now) - score(base)) > noise;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.println(String.format("%-70s %14.3f %14.3f %+7.1f%%%s", entry.getKey(), score(base), score(now),
+                    change * 100, regressed ? "  REGRESSION" : ""));
+        }
+
+        if (missing > 0) {
+            System.out.println(missing + " benchmark(s) missing from the baseline - record them on the CI runner with "
+                    + "-Dbenchmark.record=true [-Dbenchmark.include=...]");
+        }
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) regressed by more than " + (int) (tolerance * 100) + "%");
+        }
+        if (missing > 0 || regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Write the result to the baseline, keeping the baseline entries of benchmarks that did not run
+     */
+    private static void record(Path result, Path baseline) throws IOException {
+        Map<String, JsonNode> runs = Files.exists(baseline) ? readScores(baseline) : new LinkedHashMap<>();
+        runs.putAll(readScores(result));
+        ObjectMapper mapper = new ObjectMapper();
+        Files.createDirectories(baseline.toAbsolutePath().getParent());
+        mapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(baseline.toFile(), runs.values());
+        System.out.println("Recorded " + runs.size() + " benchmark(s) in baseline " + baseline);
+    }
+
+    /**
+     * Index the results of a JMH JSON file by benchmark name, mode and parameters
+     */
+    private static Map<String, JsonNode> readScores(Path file) throws IOException {
+        Map<String, JsonNode> scores = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file.toFile())) {
+            StringBuilder key = new StringBuilder(run.path("benchmark").asText().replace("benchmarks.", ""));
+            Map<String, String> params = new TreeMap<>();
+            for (Iterator<Map.Entry<String, JsonNode>> it = run.path("params").fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> param = it.next();
+                params.put(param.getKey(), param.getValue().asText());
+            }
+            if (!params.isEmpty()) {
+                key.append(params);
+            }
+            key.append(" (").append(run.path("mode").asText()).append(", ")
+                    .append(run.path("primaryMetric").path("scoreUnit").asText()).append(")");
+            scores.put(key.toString(), run);
+        }
+        return scores;
+    }
+
+    private static double score(JsonNode run) {
+        return run.path("primaryMetric").path("score").asDouble();
+    }
+
+    private static double error(JsonNode run) {
+        double error = run.path("primaryMetric").path("scoreError").asDouble();
+        return Double.isNaN(error) ? 0 : error;
+    }
+}
@@ -0,0 +1,48 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.CalendarUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CalendarUtils date formatting and parsing
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalendarBenchmark {
+
+    @Benchmark
+    public String currentDate() {
+        return CalendarUtils.getCurrentDate();
+    }
+
+    @Benchmark
+    public String currentDateLong() {
+        return CalendarUtils.getCurrentDateLong();
+    }
+
+    @Benchmark
+    public String futureDate() {
+        return CalendarUtils.getFutureDate(30);
+    }
+
+    @Benchmark
+    public String timestampForFile() {
+        return CalendarUtils.getTimestampForFile();
+    }
+
+    @Benchmark
+    public long daysBetween() {
+        return CalendarUtils.getDaysBetween("01/15/2024", "12/31/2026", "MM/dd/yyyy");
+    }
+}
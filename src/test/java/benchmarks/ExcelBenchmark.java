@@ -0,0 +1,94 @@
+package benchmarks;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import utils.ExcelDataCache;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Excel test data reading on generated sheets of increasing size.
+ *
+ * DataProviderUtils.readExcelData() is a lazy iterator over ExcelDataCache rows, so parse
+ * measures the first (uncached) read of a workbook and iterate measures what every later data
+ * provider call costs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExcelBenchmark {
+
+    private static final String SHEET = "Contract";
+    private static final int COLUMNS = 20;
+
+    @Param({"1000", "10000", "50000"})
+    public int rows;
+
+    private Path workbook;
+
+    @Setup(Level.Trial)
+    public void createWorkbook() throws IOException {
+        workbook = Files.createTempFile("benchmark-testdata", ".xlsx");
+        try (SXSSFWorkbook wb = new SXSSFWorkbook(100); OutputStream out = Files.newOutputStream(workbook)) {
+            Sheet sheet = wb.createSheet(SHEET);
+            Row header = sheet.createRow(0);
+            for (int c = 0; c < COLUMNS; c++) {
+                header.createCell(c).setCellValue("Column" + c);
+            }
+            for (int r = 1; r <= rows; r++) {
+                Row row = sheet.createRow(r);
+                for (int c = 0; c < COLUMNS; c++) {
+                    if (c % 4 == 0) {
+                        row.createCell(c).setCellValue(r * 10 + c);
+                    } else {
+                        row.createCell(c).setCellValue("value-" + r + "-" + c);
+                    }
+                }
+            }
+            wb.write(out);
+            wb.dispose();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteWorkbook() throws IOException {
+        ExcelDataCache.clear();
+        Files.deleteIfExists(workbook);
+    }
+
+    @Benchmark
+    public int parse() {
+        ExcelDataCache.clear();
+        return ExcelDataCache.getRows(workbook.toString(), SHEET).size();
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        // Same per-row work as the DataProviderUtils iterator
+        for (String[] row : ExcelDataCache.getRows(workbook.toString(), SHEET)) {
+            blackhole.consume(new Object[] {row.clone()});
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package benchmarks;
+
+import com.microsoft.playwright.Locator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import pageObjects.ContractPageObjects;
+import pageObjects.LoginPageObjects;
+import utils.BaseClass;
+import utils.FakeDriver;
+import utils.PlaywrightUtils;
+import utils.UiDriver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PlaywrightUtils.getElement() locator resolution against a real browser page.
+ *
+ * resolve* measure building the Locator for each locator type (no browser round-trip), count*
+ * add the round-trip that resolves it in the page. fakeDriverGetText is the same lookup on the
+ * in-memory FakeDriver for comparison.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocatorBenchmark {
+
+    private static final String FIXTURE =
+            "<h3 class='title-bar'>Dashboard</h3>"
+            + "<input placeholder='Enter your email'><input placeholder='Password'>"
+            + "<button type='submit'>Sign in</button>"
+            + "<div id='vin'><input name='vin'></div>"
+            + "<table class='search-results'>" + rows(50) + "</table>";
+
+    private BenchmarkUtils utils;
+    private FakeDriver fake;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        utils = new BenchmarkUtils();
+        utils.openBrowser();
+        BaseClass.getPage().setContent(FIXTURE);
+        fake = FakeDriver.adlFixture("https://adl.test/login");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        utils.closeBrowser();
+    }
+
+    @Benchmark
+    public Locator resolveCss() {
+        return utils.getElement("css", LoginPageObjects.USERNAME_FIELD);
+    }
+
+    @Benchmark
+    public Locator resolveXPath() {
+        return utils.getElement("xpath", ContractPageObjects.SEARCH_RESULTS_ROWS);
+    }
+
+    @Benchmark
+    public Locator resolveId() {
+        return utils.getElement("id", "vin");
+    }
+
+    @Benchmark
+    public Locator resolveText() {
+        return utils.getElement("text", "Sign in");
+    }
+
+    @Benchmark
+    public int countCss() {
+        return utils.getElement("css", "table.search-results tr").count();
+    }
+
+    @Benchmark
+    public int countXPath() {
+        return utils.getElement("xpath", "//table[contains(@class,'search-results')]//tr").count();
+    }
+
+    @Benchmark
+    public String fakeDriverGetText() {
+        return fake.getText("css", LoginPageObjects.PAGE_HEADER, UiDriver.ANY_MATCH);
+    }
+
+    private static String rows(int count) {
+        StringBuilder html = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            html.append("<tr><td>CN").append(100000 + i).append("</td><td>Test User</td></tr>");
+        }
+        return html.toString();
+    }
+
+    /**
+     * Drives the BaseClass lifecycle outside TestNG with a real browser
+     */
+    static class BenchmarkUtils extends PlaywrightUtils {
+
+        void openBrowser() {
+            beforeSuite();
+            prop.setProperty("test_mode", "false");
+            prop.setProperty("tracing", "off");
+            setUp();
+            if (getPage() == null) {
+                throw new IllegalStateException("Could not open a browser - run 'playwright install' first");
+            }
+        }
+
+        void closeBrowser() {
+            tearDown();
+            afterSuite();
+        }
+    }
+}
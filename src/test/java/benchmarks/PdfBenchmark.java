@@ -0,0 +1,84 @@
+package benchmarks;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.PDFUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PDFUtils text extraction on generated contract-like documents
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PdfBenchmark {
+
+    private static final int LINES_PER_PAGE = 45;
+
+    @Param({"1", "10", "50"})
+    public int pages;
+
+    private final PDFUtils pdfUtils = new PDFUtils();
+    private Path pdf;
+
+    @Setup(Level.Trial)
+    public void createPdf() throws IOException {
+        pdf = Files.createTempFile("benchmark-contract", ".pdf");
+        try (PDDocument document = new PDDocument()) {
+            for (int p = 1; p <= pages; p++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(PDType1Font.HELVETICA, 10);
+                    content.setLeading(14);
+                    content.newLineAtOffset(50, 740);
+                    for (int line = 1; line <= LINES_PER_PAGE; line++) {
+                        content.showText("Contract CN" + (100000 + p) + " line " + line
+                                + " - Vehicle Service Agreement, term 36 months, deductible $100");
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            document.save(pdf.toFile());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deletePdf() throws IOException {
+        Files.deleteIfExists(pdf);
+    }
+
+    @Benchmark
+    public String extractText() {
+        return pdfUtils.extractTextFromPDF(pdf.toString());
+    }
+
+    @Benchmark
+    public boolean containsTextOnLastPage() {
+        return pdfUtils.pdfContainsText(pdf.toString(), "Contract CN" + (100000 + pages) + " line " + LINES_PER_PAGE);
+    }
+}
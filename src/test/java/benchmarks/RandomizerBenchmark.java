@@ -0,0 +1,61 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.RandomizerUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RandomizerUtils generators alone and with 8 threads sharing them, as parallel data
+ * provider rows do
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomizerBenchmark {
+
+    @Benchmark
+    @Threads(1)
+    public String vin() {
+        return RandomizerUtils.getRandomVIN();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String vinContended() {
+        return RandomizerUtils.getRandomVIN();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String email() {
+        return RandomizerUtils.getRandomEmail();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String emailContended() {
+        return RandomizerUtils.getRandomEmail();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String phoneNumber() {
+        return RandomizerUtils.getRandomPhoneNumber();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String phoneNumberContended() {
+        return RandomizerUtils.getRandomPhoneNumber();
+    }
+}
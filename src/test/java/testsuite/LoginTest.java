@@ -18,7 +18,7 @@ public class LoginTest extends BaseClass {
         loginActions = new LoginPageActions();
     }
     
-    @DataProvider(name = "loginData")
+    @DataProvider(name = "loginData", parallel = true)
     public Object[][] getLoginData() {
         return new Object[][] {
             {prop.getProperty("adminusername"), prop.getProperty("adminpassword")},
@@ -42,9 +42,10 @@ public class LoginTest extends BaseClass {
     @Test(priority = 2, dataProvider = "loginData")
     public void testSuccessfulLogin(String username, String password) throws InterruptedException {
         navigate();
-        String header = loginActions.login(username, password);
+        // Through the form and the menu, a cached session would skip both
+        String header = loginActions.loginThroughForm(username, password);
         Assert.assertEquals(header, "Dashboard", "Login failed - Dashboard not displayed");
-        loginActions.logout();
+        loginActions.logoutThroughMenu();
     }
     
     /**
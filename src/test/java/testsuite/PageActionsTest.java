@@ -0,0 +1,134 @@
+package testsuite;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import pageActions.ContractPageActions;
+import pageActions.LoginPageActions;
+import pageObjects.ContractPageObjects;
+import pageObjects.LoginPageObjects;
+import utils.BaseClass;
+import utils.FakeDriver;
+
+import java.util.HashMap;
+
+/**
+ * Page-action logic checked against the FakeDriver ADL fixture, so these run without a browser
+ * whatever test_mode is set to
+ */
+public class PageActionsTest extends BaseClass {
+
+    private static final String START_URL = "https://adl.test/login";
+
+    private LoginPageActions loginActions;
+    private ContractPageActions contractActions;
+    private FakeDriver fake;
+
+    @BeforeClass
+    public void setupTest() {
+        loginActions = new LoginPageActions();
+        contractActions = new ContractPageActions();
+    }
+
+    @BeforeMethod
+    public void installFixture() {
+        fake = FakeDriver.adlFixture(START_URL);
+        setDriver(fake);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void removeFixture() {
+        setDriver(null);
+    }
+
+    /**
+     * Login through the form types the credentials, submits and returns the dashboard header
+     */
+    @Test(priority = 1)
+    public void testLoginThroughForm() throws InterruptedException {
+        String header = loginActions.loginThroughForm("admin@adl.test", "secret");
+
+        Assert.assertEquals(header, "Dashboard", "Header after login");
+        Assert.assertEquals(fake.getUrl(), "https://adl.test/dashboard", "URL after login");
+        Assert.assertEquals(fake.valueOf("css", LoginPageObjects.USERNAME_FIELD), "admin@adl.test");
+        Assert.assertEquals(fake.valueOf("css", LoginPageObjects.PASSWORD_FIELD), "secret");
+        Assert.assertTrue(fake.getActions().contains("click css=" + LoginPageObjects.LOGIN_BUTTON),
+                "Login button not clicked: " + fake.getActions());
+    }
+
+    /**
+     * Logout through the menu lands back on the login page
+     */
+    @Test(priority = 2)
+    public void testLogoutThroughMenu() throws InterruptedException {
+        loginActions.loginThroughForm("admin@adl.test", "secret");
+        loginActions.logoutThroughMenu();
+
+        Assert.assertEquals(fake.getUrl(), START_URL, "URL after logout");
+        Assert.assertTrue(fake.getActions().contains("click xpath=" + LoginPageObjects.LOGOUT_MENU_ITEM),
+                "Logout menu item not clicked: " + fake.getActions());
+    }
+
+    /**
+     * Each validation variant reports the error for what is missing
+     */
+    @Test(priority = 3)
+    public void testLoginValidationMessages() {
+        Assert.assertEquals(loginActions.loginValidation(), "This field is required");
+        Assert.assertEquals(loginActions.loginValidation("admin"), "Password is required");
+        Assert.assertEquals(loginActions.loginValidation("admin", "wrong"), "Invalid username or password");
+    }
+
+    /**
+     * Contract form filling, program selection and quote calculation
+     */
+    @Test(priority = 4)
+    public void testQuoteCalculation() {
+        contractActions.navigateToCreateContract();
+        HashMap<String, String> customer = contractActions.fillCustomerInformationWithRandomData();
+        HashMap<String, String> vehicle = contractActions.fillVehicleInformationWithRandomData();
+        contractActions.selectProgram("Basic Coverage", "36 months", "$500");
+        String quote = contractActions.calculateQuote();
+
+        Assert.assertEquals(fake.valueOf("css", ContractPageObjects.CUSTOMER_FIRST_NAME), customer.get("firstName"));
+        Assert.assertEquals(fake.valueOf("css", ContractPageObjects.CUSTOMER_EMAIL), customer.get("email"));
+        Assert.assertEquals(fake.valueOf("css", ContractPageObjects.VIN_NUMBER), vehicle.get("vin"));
+        Assert.assertEquals(fake.valueOf("xpath", ContractPageObjects.PROGRAM_TERM), "36 months");
+        Assert.assertEquals(quote, "$1,382.00", "Quote total");
+        Assert.assertTrue(fake.getActions().contains("expectResponses calculateQuote"),
+                "Quote not calculated through its endpoint wait: " + fake.getActions());
+    }
+
+    /**
+     * Contract generation and draft saving show their success messages
+     */
+    @Test(priority = 5)
+    public void testGenerateContractAndSaveDraft() {
+        contractActions.navigateToCreateContract();
+        contractActions.generateContract();
+        Assert.assertTrue(fake.getActions().contains("expectResponses generateContract"),
+                "Contract not generated through its endpoint wait: " + fake.getActions());
+        Assert.assertEquals(contractActions.getText("xpath", ContractPageObjects.SUCCESS_MESSAGE), "Contract CN100001 generated");
+
+        contractActions.saveDraft();
+        Assert.assertEquals(contractActions.getText("xpath", ContractPageObjects.SUCCESS_MESSAGE), "Draft saved");
+    }
+
+    /**
+     * Searching lists the matching contract, clearing the form removes the results
+     */
+    @Test(priority = 6)
+    public void testContractSearch() {
+        contractActions.navigateToContractSearch();
+        contractActions.searchContractsByVIN("1HGCM82633A004352");
+
+        Assert.assertEquals(fake.valueOf("css", ContractPageObjects.SEARCH_VIN), "1HGCM82633A004352");
+        Assert.assertEquals(contractActions.getSearchResultsCount(), 1, "Results after search");
+
+        contractActions.clearSearchForm();
+        Assert.assertEquals(contractActions.getSearchResultsCount(), 0, "Results after clearing the search");
+    }
+}